@@ -0,0 +1,68 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.DateTimeBatchParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to parse a batch of a million dates with DateTimeBatchParser, by number of threads.
+ * Scaling is read by comparing each thread count against a single thread. On a machine with
+ * fewer cores than threads, the extra threads only add overhead.
+ * <pre>
+ * java -jar target/benchmarks.jar BatchParseBenchmark -p threads=1,2,4,8,16,32
+ * </pre>
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchParseBenchmark {
+
+    private static final int BATCH_SIZE = 1000000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    @Param({"ISO", "TEXT_MONTHS", "NUMERIC_OFFSETS"})
+    public Corpus corpus;
+
+    private String[] dates;
+    private DateTimeBatchParser parser;
+
+    @Setup
+    public void setUp() {
+        String[] samples = corpus.samples();
+        dates = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            // Distinct instances, as if each had been read from a file
+            dates[i] = new String(samples[i % samples.length]);
+        }
+        parser = new DateTimeBatchParser(corpus.config(), threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parser.shutdown();
+    }
+
+    @Benchmark
+    public long[] batch() {
+        return parser.parseToMillis(dates);
+    }
+}
@@ -0,0 +1,34 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with JMH's gc profiler attached, so that each result reports its
+ * allocation rate beside its throughput. Any JMH command line options may be given, such as
+ * a regular expression selecting benchmarks:
+ * <pre>
+ * java -jar target/benchmarks.jar ParseBenchmark -p corpus=ISO
+ * </pre>
+ *
+ * @author John Pile
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+        // Entry point only
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,88 @@
+package org.pojava.datetime.benchmarks;
+
+import org.pojava.datetime.DateTimeConfig;
+import org.pojava.datetime.DateTimeConfigBuilder;
+import org.pojava.datetime.IDateTimeConfig;
+
+import java.util.TimeZone;
+
+/**
+ * Realistic date strings, grouped by the kind of source they typically come from. Every
+ * benchmark taking a corpus parameter cycles through all the strings of that corpus.
+ *
+ * @author John Pile
+ */
+public enum Corpus {
+
+    /**
+     * ISO-8601 and RFC 3339, as written by most APIs and databases.
+     */
+    ISO("2024-05-01T12:34:56.789Z", "2024-05-01T12:34:56Z", "2024-05-01T12:34:56.123456-07:00",
+            "2024-05-01", "2024-05-01 12:34:56", "1999-12-31T23:59:59.999+05:30", "2038-01-19T03:14:07Z",
+            "2000-02-29T00:00:00.000Z"),
+
+    /**
+     * RFC 1123 dates, as found in HTTP headers.
+     */
+    RFC1123("Wed, 01 May 2024 12:34:56 GMT", "Thu, 02 May 2024 08:00:00 GMT", "Sun, 06 Nov 1994 08:49:37 GMT",
+            "Fri, 31 Dec 1999 23:59:59 GMT", "Mon, 15 Jan 2024 00:00:00 GMT", "Tue, 29 Feb 2000 12:00:00 GMT"),
+
+    /**
+     * BSD syslog timestamps, which carry no year.
+     */
+    SYSLOG("May  1 12:34:56", "Dec 31 23:59:59", "Jan  5 01:02:03", "Oct 11 22:14:15", "Feb 28 06:00:00",
+            "Aug 17 17:45:30"),
+
+    /**
+     * European day-first dates, parsed with a config in DMY order.
+     */
+    EURO_DMY("01/05/2024", "31.12.2023 23:59", "15-08-2024 08:30:00", "29/02/2000", "7.3.2024 7:03",
+            "25/12/2024 18:00:00") {
+        @Override
+        IDateTimeConfig config() {
+            DateTimeConfigBuilder builder = DateTimeConfigBuilder.newInstance();
+            builder.setDmyOrder(true);
+            builder.setInputTimeZone(TimeZone.getTimeZone("Europe/Berlin"));
+            builder.setOutputTimeZone(TimeZone.getTimeZone("Europe/Berlin"));
+            return DateTimeConfig.fromBuilder(builder);
+        }
+    },
+
+    /**
+     * Month names and abbreviations in several languages.
+     */
+    TEXT_MONTHS("1 janvier 2024", "3 de febrero de 2024", "12 maggio 2024", "July 4, 1776", "4 juli 2024",
+            "17 October 2024 10:15", "Sept 9, 2001", "21 d\u00e9cembre 2012"),
+
+    /**
+     * Times qualified by a time zone name or abbreviation.
+     */
+    ZONE_NAMES("2024-05-01 12:34:56 PST", "2024-05-01 12:34:56 EST", "May 1, 2024 12:34 PM CET",
+            "2024-05-01 12:34:56 UTC", "01 May 2024 12:34:56 JST", "2024/05/01 12:34 GMT"),
+
+    /**
+     * Times qualified by a numeric offset from UTC.
+     */
+    NUMERIC_OFFSETS("2024-05-01 12:34:56 -0800", "2024-05-01 12:34:56 +05:30", "2024/05/01 12:34:56 +0100",
+            "May 1, 2024 12:34:56 -04:00", "2024-05-01 12:34 +0000", "2024-05-01 12:34:56 +09:30");
+
+    private final String[] samples;
+
+    Corpus(String... samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * @return The date strings of this corpus
+     */
+    public String[] samples() {
+        return samples.clone();
+    }
+
+    /**
+     * @return The config under which this corpus is parsed
+     */
+    IDateTimeConfig config() {
+        return DateTimeConfig.getGlobalDefault();
+    }
+}
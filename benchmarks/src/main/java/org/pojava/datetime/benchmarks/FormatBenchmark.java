@@ -0,0 +1,77 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.DateTime;
+import org.pojava.datetime.DateTimeFormat;
+
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of DateTimeFormat, comparing one-off static formatting with a compiled template,
+ * and a String result with output into a reused buffer.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    @Param({"yyyy-MM-dd'T'HH:mm:ss.SSSZZ", "EEE, dd MMM yyyy HH:mm:ss z", "d MMMM yyyy h:mm a"})
+    public String template;
+
+    @Param({"en", "fr"})
+    public String language;
+
+    private DateTime dt;
+    private TimeZone tz;
+    private Locale locale;
+    private DateTimeFormat compiled;
+    private final StringBuilder sb = new StringBuilder(64);
+    private final char[] chars = new char[128];
+
+    @Setup
+    public void setUp() {
+        dt = new DateTime("2024-05-01T12:34:56.789Z");
+        tz = TimeZone.getTimeZone("America/New_York");
+        locale = new Locale(language);
+        compiled = DateTimeFormat.compile(template);
+    }
+
+    @Benchmark
+    public String formatStatic() {
+        return DateTimeFormat.format(template, dt, tz, locale);
+    }
+
+    @Benchmark
+    public String formatCompiled() {
+        return compiled.format(dt, tz, locale);
+    }
+
+    @Benchmark
+    public int formatToCharArray() {
+        return compiled.formatTo(dt, chars, 0);
+    }
+
+    @Benchmark
+    public int formatToStringBuilder() throws Exception {
+        sb.setLength(0);
+        compiled.formatTo(dt, sb);
+        return sb.length();
+    }
+}
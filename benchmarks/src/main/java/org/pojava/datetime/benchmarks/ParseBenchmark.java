@@ -0,0 +1,81 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.AdaptiveDateTimeParser;
+import org.pojava.datetime.DateTime;
+import org.pojava.datetime.IDateTimeConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of DateTime.parse over each corpus of date strings, and of an
+ * AdaptiveDateTimeParser that has learned the layouts of the corpus.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+    @Param({"ISO", "RFC1123", "SYSLOG", "EURO_DMY", "TEXT_MONTHS", "ZONE_NAMES", "NUMERIC_OFFSETS"})
+    public Corpus corpus;
+
+    private String[] samples;
+    private IDateTimeConfig config;
+    private AdaptiveDateTimeParser adaptive;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        samples = corpus.samples();
+        config = corpus.config();
+        // Fail fast on a sample the parser rejects, rather than benchmarking exceptions.
+        for (String sample : samples) {
+            DateTime.parse(sample, config);
+        }
+        adaptive = new AdaptiveDateTimeParser(config);
+        for (String sample : samples) {
+            adaptive.parseToMillis(sample);
+        }
+    }
+
+    private String nextSample() {
+        String sample = samples[next];
+        next = next + 1 == samples.length ? 0 : next + 1;
+        return sample;
+    }
+
+    @Benchmark
+    public DateTime parse() {
+        return DateTime.parse(nextSample(), config);
+    }
+
+    @Benchmark
+    public long parseToMillis() {
+        return DateTime.parseToMillis(nextSample(), config);
+    }
+
+    @Benchmark
+    public long parseToEpochNanos() {
+        return DateTime.parseToEpochNanos(nextSample(), config);
+    }
+
+    @Benchmark
+    public long adaptiveParseToMillis() {
+        return adaptive.parseToMillis(nextSample());
+    }
+}
@@ -0,0 +1,63 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.CalendarUnit;
+import org.pojava.datetime.DateTime;
+import org.pojava.datetime.Shift;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of calendar arithmetic: shifting by calendar units and by a Shift, and truncating.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShiftBenchmark {
+
+    @Param({"DAY", "MONTH", "YEAR"})
+    public CalendarUnit shiftUnit;
+
+    @Param({"HOUR", "DAY", "WEEK", "MONTH", "YEAR"})
+    public CalendarUnit truncateUnit;
+
+    private DateTime dt;
+    private Shift shift;
+
+    @Setup
+    public void setUp() {
+        dt = new DateTime("2024-03-09 12:34:56", TimeZone.getTimeZone("America/New_York"));
+        shift = new Shift("P1Y2M3DT4H5M6S");
+    }
+
+    @Benchmark
+    public DateTime shiftByUnit() {
+        return dt.shift(shiftUnit, 3);
+    }
+
+    @Benchmark
+    public DateTime shiftByShift() {
+        return dt.shift(shift);
+    }
+
+    @Benchmark
+    public DateTime truncate() {
+        return dt.truncate(truncateUnit);
+    }
+}
@@ -0,0 +1,101 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.Tm;
+import org.pojava.datetime.TmBatch;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to break a column of a hundred thousand timestamps into columns of year, month, day,
+ * hour and weekday: with TmBatch, with a Tm per timestamp, and with one Tm set again for each.
+ * Sorted timestamps are a few seconds apart over about a week, as in a log. Random ones fall
+ * anywhere from 1970 to 2040.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TmBatchBenchmark {
+
+    private static final int SIZE = 100000;
+
+    @Param({"UTC", "America/New_York"})
+    public String zone;
+
+    @Param({"SORTED", "RANDOM"})
+    public String order;
+
+    private TimeZone tz;
+    private long[] millis;
+    private final int[] years = new int[SIZE];
+    private final int[] months = new int[SIZE];
+    private final int[] days = new int[SIZE];
+    private final int[] hours = new int[SIZE];
+    private final int[] weekdays = new int[SIZE];
+
+    @Setup
+    public void setUp() {
+        tz = TimeZone.getTimeZone(zone);
+        millis = new long[SIZE];
+        Random random = new Random(42);
+        long time = 1710000000000L; // 2024-03-09, across a transition in New York
+        for (int i = 0; i < SIZE; i++) {
+            if ("RANDOM".equals(order)) {
+                millis[i] = (long) (random.nextDouble() * 2208988800000L);
+            } else {
+                time += random.nextInt(12000);
+                millis[i] = time;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] batch() {
+        TmBatch.decompose(millis, tz, years, months, days, hours, weekdays);
+        return years;
+    }
+
+    @Benchmark
+    public int[] tmPerTimestamp() {
+        for (int i = 0; i < SIZE; i++) {
+            Tm tm = new Tm(millis[i], tz);
+            years[i] = tm.getYear();
+            months[i] = tm.getMonth();
+            days[i] = tm.getDay();
+            hours[i] = tm.getHour();
+            weekdays[i] = tm.getWeekday();
+        }
+        return years;
+    }
+
+    @Benchmark
+    public int[] tmReused() {
+        Tm tm = new Tm();
+        for (int i = 0; i < SIZE; i++) {
+            tm.set(millis[i], tz);
+            years[i] = tm.getYear();
+            months[i] = tm.getMonth();
+            days[i] = tm.getDay();
+            hours[i] = tm.getHour();
+            weekdays[i] = tm.getWeekday();
+        }
+        return years;
+    }
+}
@@ -0,0 +1,81 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pojava.datetime.DateTime;
+import org.pojava.datetime.Tm;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of breaking a DateTime into its parts with a new Tm or a reused one, and of the
+ * reverse with calcTime.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TmBenchmark {
+
+    /**
+     * A modern date, and one old enough to take the pre-Gregorian path.
+     */
+    @Param({"2024-05-01 12:34:56", "1492-10-12 09:00:00"})
+    public String date;
+
+    @Param({"UTC", "America/New_York"})
+    public String zone;
+
+    private DateTime dt;
+    private TimeZone tz;
+    private final Tm reused = new Tm();
+
+    @Setup
+    public void setUp() {
+        tz = TimeZone.getTimeZone(zone);
+        dt = new DateTime(date, tz);
+    }
+
+    @Benchmark
+    public void tm(Blackhole blackhole) {
+        Tm tm = new Tm(dt, tz);
+        blackhole.consume(tm.getYear());
+        blackhole.consume(tm.getMonth());
+        blackhole.consume(tm.getDay());
+        blackhole.consume(tm.getHour());
+        blackhole.consume(tm.getWeekday());
+    }
+
+    /**
+     * The same, decomposing milliseconds into a Tm that is set again each time.
+     */
+    @Benchmark
+    public void set(Blackhole blackhole) {
+        Tm tm = reused.set(dt.toMillis(), tz);
+        blackhole.consume(tm.getYear());
+        blackhole.consume(tm.getMonth());
+        blackhole.consume(tm.getDay());
+        blackhole.consume(tm.getHour());
+        blackhole.consume(tm.getWeekday());
+    }
+
+    @Benchmark
+    public long calcTime() {
+        return Tm.calcTime(2024, 5, 1, 12, 34, 56, 789, tz);
+    }
+}
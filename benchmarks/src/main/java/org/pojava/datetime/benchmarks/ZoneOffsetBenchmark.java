@@ -0,0 +1,83 @@
+package org.pojava.datetime.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pojava.datetime.ZoneOffsets;
+
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to look up the offset of a time zone for each of a column of instants, with
+ * TimeZone.getOffset and with ZoneOffsets. Sequential instants are a minute apart, as in a
+ * log. Random instants fall anywhere from 1950 to 2050. Either way, ZoneOffsets takes a
+ * binary search of the table.
+ *
+ * @author John Pile
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneOffsetBenchmark {
+
+    private static final int SIZE = 10000;
+    private static final long START = -631152000000L; // 1950-01-01
+    private static final long END = 2524608000000L; // 2050-01-01
+
+    @Param({"UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe"})
+    public String zone;
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public String order;
+
+    private TimeZone tz;
+    private long[] instants;
+
+    @Setup
+    public void setUp() {
+        tz = TimeZone.getTimeZone(zone);
+        instants = new long[SIZE];
+        Random random = new Random(42);
+        long millis = 1704067200000L; // 2024-01-01
+        for (int i = 0; i < SIZE; i++) {
+            if ("RANDOM".equals(order)) {
+                instants[i] = START + (long) (random.nextDouble() * (END - START));
+            } else {
+                instants[i] = millis;
+                millis += 60000;
+            }
+        }
+    }
+
+    @Benchmark
+    public long timeZone() {
+        long sum = 0;
+        for (long millis : instants) {
+            sum += tz.getOffset(millis);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long zoneOffsets() {
+        ZoneOffsets offsets = ZoneOffsets.of(tz);
+        long sum = 0;
+        for (long millis : instants) {
+            sum += offsets.getOffset(millis);
+        }
+        return sum;
+    }
+}
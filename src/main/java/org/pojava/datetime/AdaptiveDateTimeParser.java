@@ -0,0 +1,750 @@
+package org.pojava.datetime;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * AdaptiveDateTimeParser learns the layouts of the dates it is given. A feed typically writes
+ * millions of dates in one layout, yet DateTime.parse weighs every string afresh to decide
+ * which number is the day, whether a word is a month or a time zone, and so on.
+ * <p>
+ * This parser reduces each string to a shape, such as "n a y n:n:n a" for "May 1 2024
+ * 12:34:56 PST", in which digits, words, spaces and punctuation are classed but not read.
+ * The first time a shape is seen, the string is parsed by the heuristics, and the role of
+ * each part is worked out from the result: which number is the day, which word the month, and
+ * so on. Later strings of the same shape are read straight from that layout. Any string that
+ * does not fit its layout, with a month out of range or a word that is not a month for
+ * example, is handed to the heuristics as before. So is a word the heuristics read two ways,
+ * as EST, which names a month in some languages as well as a time zone.
+ * </p>
+ * <p>
+ * A layout is kept only if it reproduces the result of the heuristics for the string it was
+ * learned from. When the roles of a string cannot be told apart, as in 01/01/2024, learning
+ * waits for a string of the same shape that settles the question, for a while. An instance
+ * is safe to share between threads, and should be kept for as long as its feed.
+ * </p>
+ *
+ * @author John Pile
+ */
+public class AdaptiveDateTimeParser {
+
+    /**
+     * Most shapes remembered, so that a feed of arbitrary text cannot grow the cache forever.
+     */
+    private static final int MAX_LAYOUTS = 1024;
+    /**
+     * Strings of one shape tried before giving up on learning its layout.
+     */
+    private static final int MAX_ATTEMPTS = 16;
+    /**
+     * Words remembered as read only one way by the heuristics, for each token of a layout
+     */
+    private static final int MAX_CHECKED_WORDS = 16;
+
+    // Roles of the tokens of a layout
+    private static final byte SKIP = 0;
+    private static final byte LITERAL = 1;
+    private static final byte YEAR = 2;
+    private static final byte MONTH = 3;
+    private static final byte DAY = 4;
+    private static final byte HOUR = 5;
+    private static final byte MINUTE = 6;
+    private static final byte SECOND = 7;
+    private static final byte FRACTION = 8;
+    private static final byte MONTH_NAME = 9;
+    private static final byte AM_PM = 10;
+    private static final byte ZONE = 11;
+    private static final byte OFFSET_SIGN = 12;
+    private static final byte OFFSET_HOURS = 13;
+    private static final byte OFFSET_MINUTES = 14;
+    private static final byte OFFSET_HOURS_MINUTES = 15;
+
+    private final IDateTimeConfig config;
+    private final ConcurrentMap<String, Layout> layouts = new ConcurrentHashMap<String, Layout>();
+
+    /**
+     * @param config Configuration parameters governing parsing and presentation
+     */
+    public AdaptiveDateTimeParser(IDateTimeConfig config) {
+        this.config = config == null ? DateTimeConfig.getGlobalDefault() : config;
+    }
+
+    /**
+     * Interpret a DateTime from a String.
+     *
+     * @param str Date/Time string to be parsed
+     * @return New DateTime interpreted from string
+     */
+    public DateTime parse(CharSequence str) {
+        if (str == null) {
+            return new DateTime(config.systemTime(), config);
+        }
+        Tokens tokens = Tokens.acquire();
+        DateTime.ParseScratch scratch = DateTime.ParseScratch.acquire();
+        try {
+            parse(str, tokens, scratch);
+            return scratch.toDateTime(config);
+        } finally {
+            scratch.release();
+            tokens.release();
+        }
+    }
+
+    /**
+     * Interpret milliseconds since epoch from a String, without creating a DateTime.
+     *
+     * @param str Date/Time string to be parsed
+     * @return Milliseconds since epoch interpreted from string
+     */
+    public long parseToMillis(CharSequence str) {
+        if (str == null) {
+            return config.systemTime();
+        }
+        Tokens tokens = Tokens.acquire();
+        DateTime.ParseScratch scratch = DateTime.ParseScratch.acquire();
+        try {
+            parse(str, tokens, scratch);
+            return scratch.millis;
+        } finally {
+            scratch.release();
+            tokens.release();
+        }
+    }
+
+    /**
+     * @return Number of shapes for which a layout has been learned
+     */
+    int layoutCount() {
+        int count = 0;
+        for (Layout layout : layouts.values()) {
+            if (layout.roles != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void parse(CharSequence str, Tokens tokens, DateTime.ParseScratch scratch) {
+        int start = 0;
+        int end = str.length();
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        // ISO-8601 is already read without heuristics.
+        if (IsoDateTimeParser.parse(str, start, end, config, scratch)) {
+            return;
+        }
+        tokens.tokenize(str, start, end);
+        String shape = tokens.shape.toString();
+        Layout layout = layouts.get(shape);
+        if (layout != null && layout.apply(tokens, config, scratch)) {
+            return;
+        }
+        DateTime.parse(str, start, end, config, scratch);
+        if (layout == null ? layouts.size() < MAX_LAYOUTS : layout.isLearning()) {
+            long millis = scratch.millis;
+            int nanos = scratch.nanos;
+            Layout learned = Layout.learn(tokens, config, millis, nanos);
+            // Only keep a layout that reproduces the heuristics.
+            if (learned != null && learned != Layout.UNSUPPORTED && (!learned.apply(tokens, config, scratch)
+                    || scratch.millis != millis || scratch.nanos != nanos)) {
+                learned = null;
+            }
+            if (learned == null) {
+                int attempts = layout == null ? 1 : layout.attempts + 1;
+                learned = attempts < MAX_ATTEMPTS ? Layout.learning(attempts) : Layout.UNSUPPORTED;
+            }
+            if (layout == null) {
+                layouts.putIfAbsent(shape, learned);
+            } else {
+                layouts.replace(shape, layout, learned);
+            }
+            scratch.millis = millis;
+            scratch.nanos = nanos;
+        }
+    }
+
+    /**
+     * A string broken into runs of digits, runs of letters, runs of whitespace, and single
+     * punctuation characters. Each thread keeps one for reuse.
+     */
+    private static final class Tokens {
+        private static final ThreadLocal<Tokens> PER_THREAD = new ThreadLocal<Tokens>() {
+            @Override
+            protected Tokens initialValue() {
+                return new Tokens();
+            }
+        };
+
+        static final byte DIGITS = 0;
+        static final byte WORD = 1;
+        static final byte SPACE = 2;
+        static final byte PUNCTUATION = 3;
+
+        private final StringBuilder shape = new StringBuilder(32);
+        private final Tm tm = new Tm();
+        private CharSequence str;
+        private int count;
+        private byte[] kinds = new byte[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        /**
+         * Value of each run of up to nine digits.
+         */
+        private int[] values = new int[16];
+        private boolean inUse;
+
+        static Tokens acquire() {
+            Tokens tokens = PER_THREAD.get();
+            if (tokens.inUse) {
+                tokens = new Tokens();
+            }
+            tokens.inUse = true;
+            return tokens;
+        }
+
+        void release() {
+            inUse = false;
+            str = null;
+        }
+
+        void tokenize(CharSequence chars, int start, int end) {
+            str = chars;
+            count = 0;
+            shape.setLength(0);
+            int pos = start;
+            while (pos < end) {
+                char c = chars.charAt(pos);
+                int first = pos++;
+                byte kind;
+                if (c >= '0' && c <= '9') {
+                    kind = DIGITS;
+                    int value = c - '0';
+                    while (pos < end && (c = chars.charAt(pos)) >= '0' && c <= '9') {
+                        value = value * 10 + c - '0';
+                        pos++;
+                    }
+                    int length = pos - first;
+                    values = grow(values);
+                    values[count] = length > 9 ? -1 : value;
+                    // Days, months, hours and the like may drop a leading zero.
+                    shape.append(length <= 2 ? 'n' : length == 4 ? 'y' : length > 9 ? 'x' : (char) ('0' + length));
+                } else if (Character.isLetter(c)) {
+                    kind = WORD;
+                    while (pos < end && Character.isLetter(chars.charAt(pos))) {
+                        pos++;
+                    }
+                    shape.append('a');
+                } else if (c <= ' ') {
+                    kind = SPACE;
+                    while (pos < end && chars.charAt(pos) <= ' ') {
+                        pos++;
+                    }
+                    shape.append(' ');
+                } else {
+                    kind = PUNCTUATION;
+                    // The sign of an offset varies from one string to the next.
+                    shape.append(c == '+' ? '-' : c);
+                }
+                kinds = grow(kinds);
+                starts = grow(starts);
+                ends = grow(ends);
+                kinds[count] = kind;
+                starts[count] = first;
+                ends[count] = pos;
+                count++;
+            }
+        }
+
+        private byte[] grow(byte[] array) {
+            if (count < array.length) {
+                return array;
+            }
+            byte[] grown = new byte[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, count);
+            return grown;
+        }
+
+        private int[] grow(int[] array) {
+            if (count < array.length) {
+                return array;
+            }
+            int[] grown = new int[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, count);
+            return grown;
+        }
+
+        int length(int token) {
+            return ends[token] - starts[token];
+        }
+
+        char first(int token) {
+            return str.charAt(starts[token]);
+        }
+
+        boolean isPunctuation(int token, char c) {
+            return token >= 0 && token < count && kinds[token] == PUNCTUATION && str.charAt(starts[token]) == c;
+        }
+
+        /**
+         * @return True if the token is exactly the given text
+         */
+        boolean is(int token, String text) {
+            int start = starts[token];
+            if (length(token) != text.length()) {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (str.charAt(start + i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String text(int token) {
+            return str.subSequence(starts[token], ends[token]).toString();
+        }
+
+        boolean isWord(int token, String upperCase) {
+            if (kinds[token] != WORD || length(token) != upperCase.length()) {
+                return false;
+            }
+            for (int i = 0; i < upperCase.length(); i++) {
+                if (Character.toUpperCase(str.charAt(starts[token] + i)) != upperCase.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return True if the token is AM or PM
+         */
+        boolean isAmPm(int token) {
+            return isWord(token, "AM") || isWord(token, "PM");
+        }
+
+        /**
+         * @return True if the token is BC or BCE
+         */
+        boolean isEra(int token) {
+            return isWord(token, "BC") || isWord(token, "BCE");
+        }
+
+        Integer monthIndex(int token, IDateTimeConfig config) {
+            // As in the heuristics, too short a word is never taken for a month.
+            return length(token) > 2 ? config.lookupMonthIndex(str, starts[token], ends[token]) : null;
+        }
+
+        TimeZone zone(int token, IDateTimeConfig config) {
+            String id = str.subSequence(starts[token], ends[token]).toString().toUpperCase(config.getLocale());
+            return config.lookupTimeZone(id, null);
+        }
+    }
+
+    /**
+     * The role played by each token of a shape.
+     */
+    private static final class Layout {
+        static final Layout UNSUPPORTED = new Layout(null, null, false, 0);
+
+        /**
+         * Roles of the tokens, or null if there is no layout
+         */
+        private final byte[] roles;
+        /**
+         * Expected punctuation, for tokens of role LITERAL
+         */
+        private final char[] literals;
+        /**
+         * True if the year is not given, and taken to be the current year
+         */
+        private final boolean currentYear;
+        /**
+         * Strings of this shape from which no layout could yet be learned
+         */
+        private final int attempts;
+        /**
+         * Words found at each token of role SKIP or MONTH_NAME that the heuristics read only
+         * in that role, such as the names of weekdays, so that they need not be looked up again
+         */
+        private final AtomicReferenceArray<String[]> checkedWords;
+
+        private Layout(byte[] roles, char[] literals, boolean currentYear, int attempts) {
+            this.roles = roles;
+            this.literals = literals;
+            this.currentYear = currentYear;
+            this.attempts = attempts;
+            this.checkedWords = roles == null ? null : new AtomicReferenceArray<String[]>(roles.length);
+        }
+
+        /**
+         * @param attempts Number of strings tried so far
+         * @return Placeholder for a shape whose layout is still to be learned
+         */
+        static Layout learning(int attempts) {
+            return new Layout(null, null, false, attempts);
+        }
+
+        boolean isLearning() {
+            return roles == null && this != UNSUPPORTED;
+        }
+
+        /**
+         * Read a date by this layout.
+         *
+         * @return False if the tokens do not fit the layout
+         */
+        boolean apply(Tokens tokens, IDateTimeConfig config, DateTime.ParseScratch scratch) {
+            if (roles == null || tokens.count != roles.length) {
+                return false;
+            }
+            int year = 0;
+            int month = 0;
+            int day = 0;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            int nanos = 0;
+            int amPm = 0;
+            int offsetSign = 0;
+            int offsetHours = 0;
+            int offsetMinutes = 0;
+            TimeZone tz = config.getInputTimeZone();
+            for (int i = 0; i < roles.length; i++) {
+                int value = tokens.values[i];
+                switch (roles[i]) {
+                    case SKIP:
+                        if (tokens.kinds[i] == Tokens.WORD && !isChecked(tokens, i, config, SKIP)) {
+                            return false;
+                        }
+                        break;
+                    case LITERAL:
+                        if (tokens.first(i) != literals[i]) {
+                            return false;
+                        }
+                        break;
+                    case YEAR:
+                        year = value;
+                        break;
+                    case MONTH:
+                        month = value;
+                        break;
+                    case DAY:
+                        day = value;
+                        break;
+                    case HOUR:
+                        hour = value;
+                        break;
+                    case MINUTE:
+                        minute = value;
+                        break;
+                    case SECOND:
+                        second = value;
+                        break;
+                    case FRACTION:
+                        nanos = value;
+                        for (int digits = tokens.length(i); digits < 9; digits++) {
+                            nanos *= 10;
+                        }
+                        break;
+                    case MONTH_NAME:
+                        Integer index = tokens.monthIndex(i, config);
+                        if (index == null || !isChecked(tokens, i, config, MONTH_NAME)) {
+                            return false;
+                        }
+                        month = index + 1;
+                        break;
+                    case AM_PM:
+                        if (!tokens.isAmPm(i)) {
+                            return false;
+                        }
+                        amPm = tokens.isWord(i, "PM") ? 2 : 1;
+                        break;
+                    case ZONE:
+                        // The heuristics take a zone that is also a month name, such as EST, for the month.
+                        if (tokens.monthIndex(i, config) != null) {
+                            return false;
+                        }
+                        tz = tokens.zone(i, config);
+                        if (tz == null) {
+                            return false;
+                        }
+                        break;
+                    case OFFSET_SIGN:
+                        offsetSign = tokens.first(i) == '-' ? -1 : 1;
+                        break;
+                    case OFFSET_HOURS:
+                        offsetHours = value;
+                        break;
+                    case OFFSET_MINUTES:
+                        offsetMinutes = value;
+                        break;
+                    case OFFSET_HOURS_MINUTES:
+                        offsetHours = value / 100;
+                        offsetMinutes = value % 100;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            if (offsetSign != 0) {
+                // The heuristics only read an offset ending in zero, so leave others to them.
+                if (offsetHours > 18 || offsetMinutes > 59 || offsetMinutes % 10 != 0) {
+                    return false;
+                }
+                tz = FixedOffsetZones.forSeconds(offsetSign * (offsetHours * 3600 + offsetMinutes * 60));
+            }
+            if (currentYear) {
+                year = tokens.tm.set(config.systemTime(), tz).getYear();
+            }
+            if (amPm == 2 && hour > 0 && hour < 12) {
+                hour += 12;
+            } else if (amPm == 1 && hour == 12) {
+                hour = 0;
+            }
+            if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                    || hour > 23 || minute > 59 || second > 59) {
+                return false;
+            }
+            scratch.millis = Tm.calcTime(year, month, day, hour, minute, second, nanos / 1000000, tz);
+            scratch.nanos = nanos;
+            return true;
+        }
+
+        /**
+         * A word passed over must not be one the heuristics would read, and a month name must
+         * not also name a time zone, as IRAN does. Words already found to be safe are
+         * remembered, a few for each token.
+         */
+        private boolean isChecked(Tokens tokens, int token, IDateTimeConfig config, byte role) {
+            String[] known = checkedWords.get(token);
+            if (known != null) {
+                for (String word : known) {
+                    if (tokens.is(token, word)) {
+                        return true;
+                    }
+                }
+            }
+            if (role == SKIP && (tokens.isAmPm(token) || tokens.isEra(token) || tokens.monthIndex(token, config) != null)
+                    || tokens.zone(token, config) != null) {
+                return false;
+            }
+            if (known == null || known.length < MAX_CHECKED_WORDS) {
+                String[] grown = known == null ? new String[1] : Arrays.copyOf(known, known.length + 1);
+                grown[grown.length - 1] = tokens.text(token);
+                // Should another thread add a word at the same time, one of the two is kept.
+                checkedWords.compareAndSet(token, known, grown);
+            }
+            return true;
+        }
+
+        private static int daysInMonth(int year, int month) {
+            if (month == 2) {
+                boolean leap = year % 4 == 0 && (year < 1600 || year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            }
+            return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+        }
+
+        /**
+         * Work out the role of each token from the result of the heuristics.
+         *
+         * @param tokens The string, broken into tokens
+         * @param config Configuration parameters governing parsing
+         * @param millis Instant found by the heuristics
+         * @param nanos  Fraction of the second found by the heuristics
+         * @return The layout, UNSUPPORTED if no layout can describe the shape, or null if the
+         *         roles cannot be told apart in this string
+         */
+        static Layout learn(Tokens tokens, IDateTimeConfig config, long millis, int nanos) {
+            int count = tokens.count;
+            byte[] roles = new byte[count];
+            char[] literals = new char[count];
+            // Roles still open to numbers
+            boolean[] open = new boolean[SECOND + 1];
+            open[YEAR] = open[MONTH] = open[DAY] = open[HOUR] = open[MINUTE] = open[SECOND] = true;
+            if (count == 0 || tokens.kinds[0] == Tokens.PUNCTUATION) {
+                // Relative dates such as +3D
+                return UNSUPPORTED;
+            }
+            for (int i = 0; i < count; i++) {
+                if (tokens.kinds[i] == Tokens.DIGITS && tokens.values[i] < 0) {
+                    return UNSUPPORTED;
+                }
+            }
+            TimeZone tz = null;
+            // A numeric offset after a space ends the string: -0800 or +05:30
+            int last = count - 1;
+            if (count > 4 && tokens.kinds[last] == Tokens.DIGITS && tokens.length(last) == 2
+                    && tokens.isPunctuation(last - 1, ':') && tokens.kinds[last - 2] == Tokens.DIGITS
+                    && tokens.length(last - 2) == 2 && isSign(tokens, last - 3) && tokens.kinds[last - 4] == Tokens.SPACE) {
+                roles[last - 3] = OFFSET_SIGN;
+                roles[last - 2] = OFFSET_HOURS;
+                roles[last - 1] = LITERAL;
+                literals[last - 1] = ':';
+                roles[last] = OFFSET_MINUTES;
+                tz = offsetZone(tokens, last - 3, tokens.values[last - 2], tokens.values[last]);
+            } else if (count > 2 && tokens.kinds[last] == Tokens.DIGITS && tokens.length(last) == 4
+                    && isSign(tokens, last - 1) && tokens.kinds[last - 2] == Tokens.SPACE) {
+                roles[last - 1] = OFFSET_SIGN;
+                roles[last] = OFFSET_HOURS_MINUTES;
+                tz = offsetZone(tokens, last - 1, tokens.values[last] / 100, tokens.values[last] % 100);
+            }
+            if (roles[last] != SKIP && tz == null) {
+                return UNSUPPORTED;
+            }
+            // Words: month names, AM/PM, and the last word naming a time zone
+            boolean monthNamed = false;
+            boolean pm = false;
+            boolean hasAmPm = false;
+            int zoneToken = -1;
+            for (int i = 0; i < count; i++) {
+                if (tokens.kinds[i] != Tokens.WORD) {
+                    continue;
+                }
+                if (tokens.isEra(i)) {
+                    return UNSUPPORTED;
+                }
+                if (tokens.isAmPm(i)) {
+                    if (hasAmPm) {
+                        return UNSUPPORTED;
+                    }
+                    roles[i] = AM_PM;
+                    hasAmPm = true;
+                    pm = tokens.isWord(i, "PM");
+                } else if (!monthNamed && tokens.monthIndex(i, config) != null) {
+                    if (tokens.zone(i, config) != null) {
+                        // Read by the heuristics as both month and zone
+                        return null;
+                    }
+                    roles[i] = MONTH_NAME;
+                    monthNamed = true;
+                    open[MONTH] = false;
+                } else if (tz == null && tokens.monthIndex(i, config) == null && tokens.zone(i, config) != null) {
+                    zoneToken = i;
+                }
+            }
+            if (zoneToken >= 0) {
+                roles[zoneToken] = ZONE;
+                tz = tokens.zone(zoneToken, config);
+            }
+            if (tz == null) {
+                tz = config.getInputTimeZone();
+            }
+            Tm tm = tokens.tm.set(millis, tz);
+            // A time of day is numbers joined by colons, perhaps followed by a fraction.
+            for (int i = 0; i + 2 < count; i++) {
+                if (roles[i] == SKIP && tokens.kinds[i] == Tokens.DIGITS && tokens.isPunctuation(i + 1, ':')
+                        && tokens.kinds[i + 2] == Tokens.DIGITS && roles[i + 2] == SKIP) {
+                    roles[i] = HOUR;
+                    roles[i + 2] = MINUTE;
+                    open[HOUR] = open[MINUTE] = false;
+                    int next = i + 3;
+                    if (tokens.isPunctuation(next, ':') && next + 1 < count && tokens.kinds[next + 1] == Tokens.DIGITS) {
+                        roles[next + 1] = SECOND;
+                        open[SECOND] = false;
+                        next += 2;
+                        if ((tokens.isPunctuation(next, '.') || tokens.isPunctuation(next, ','))
+                                && next + 1 < count && tokens.kinds[next + 1] == Tokens.DIGITS) {
+                            roles[next + 1] = FRACTION;
+                        }
+                    }
+                    break;
+                }
+            }
+            // The remaining numbers are told apart by their values.
+            int wallHour = tm.getHour();
+            int[] fields = new int[SECOND + 1];
+            fields[YEAR] = tm.getYear();
+            fields[MONTH] = tm.getMonth();
+            fields[DAY] = tm.getDay();
+            fields[MINUTE] = tm.getMinute();
+            fields[SECOND] = tm.getSecond();
+            int unresolved = 0;
+            for (int i = 0; i < count; i++) {
+                if (tokens.kinds[i] == Tokens.DIGITS && roles[i] == SKIP) {
+                    unresolved++;
+                }
+            }
+            while (unresolved > 0) {
+                int resolved = 0;
+                for (int i = 0; i < count; i++) {
+                    if (tokens.kinds[i] != Tokens.DIGITS || roles[i] != SKIP) {
+                        continue;
+                    }
+                    int value = tokens.values[i];
+                    int length = tokens.length(i);
+                    byte only = SKIP;
+                    int candidates = 0;
+                    for (byte role = YEAR; role <= SECOND; role++) {
+                        if (!open[role] || (role == YEAR) != (length == 4)) {
+                            continue;
+                        }
+                        boolean fits = role == HOUR ? hourFits(value, hasAmPm, pm, wallHour) : value == fields[role];
+                        if (fits) {
+                            only = role;
+                            candidates++;
+                        }
+                    }
+                    if (candidates == 0) {
+                        return UNSUPPORTED;
+                    }
+                    if (candidates == 1) {
+                        roles[i] = only;
+                        open[only] = false;
+                        resolved++;
+                    }
+                }
+                if (resolved == 0) {
+                    // Ambiguous, as in 01/01/2024
+                    return null;
+                }
+                unresolved -= resolved;
+            }
+            if (open[DAY] || open[MONTH]) {
+                return UNSUPPORTED;
+            }
+            if (open[YEAR] && tokens.kinds[last] == Tokens.WORD) {
+                // Without a year, whether the heuristics read a last word depends on the other values.
+                return UNSUPPORTED;
+            }
+            for (int i = 0; i < count; i++) {
+                if (tokens.kinds[i] == Tokens.PUNCTUATION && roles[i] == SKIP) {
+                    roles[i] = LITERAL;
+                    literals[i] = tokens.first(i);
+                }
+            }
+            return new Layout(roles, literals, open[YEAR], 0);
+        }
+
+        private static boolean isSign(Tokens tokens, int token) {
+            return tokens.isPunctuation(token, '+') || tokens.isPunctuation(token, '-');
+        }
+
+        private static boolean hourFits(int value, boolean hasAmPm, boolean pm, int wallHour) {
+            if (!hasAmPm) {
+                return value == wallHour;
+            }
+            if (pm && value > 0 && value < 12) {
+                return value + 12 == wallHour;
+            }
+            return (value == 12 && !pm ? 0 : value) == wallHour;
+        }
+
+        private static TimeZone offsetZone(Tokens tokens, int sign, int hours, int minutes) {
+            if (hours > 18 || minutes > 59) {
+                return null;
+            }
+            int seconds = hours * 3600 + minutes * 60;
+            return FixedOffsetZones.forSeconds(tokens.first(sign) == '-' ? -seconds : seconds);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.pojava.datetime;
+
+/**
+ * AsciiSequence presents a range of a byte array as characters, one byte per character, so
+ * that ISO-8601 dates read into I/O buffers can be parsed without first decoding them into a
+ * String.
+ * Bytes above 0x7F are read as ISO-8859-1. An instance may be rewrapped around another range,
+ * so that a single view serves any number of parses.
+ *
+ * @author John Pile
+ */
+final class AsciiSequence implements CharSequence {
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private byte[] bytes = NO_BYTES;
+    private int offset;
+    private int length;
+
+    AsciiSequence() {
+        // Wrapped later
+    }
+
+    AsciiSequence(byte[] bytes, int offset, int length) {
+        wrap(bytes, offset, length);
+    }
+
+    /**
+     * Point this view at a range of bytes.
+     *
+     * @param bytes  Characters encoded one per byte
+     * @param offset Position of the first character
+     * @param length Number of characters
+     * @return This view
+     * @throws IndexOutOfBoundsException if the range does not lie within the array
+     */
+    AsciiSequence wrap(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException("Range of " + length + " bytes at offset " + offset
+                    + " does not fit a " + bytes.length + " byte array.");
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Let go of the wrapped array.
+     */
+    void clear() {
+        bytes = NO_BYTES;
+        offset = 0;
+        length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + length + " characters.");
+        }
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " of " + length + " characters.");
+        }
+        return new AsciiSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes[offset + i] & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,298 @@
+package org.pojava.datetime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CachingDateTimeParser remembers the instants it has parsed, for feeds such as HTTP and
+ * syslog that repeat the same timestamp string many times over. A string seen before, under
+ * the same config, is answered from the cache without being parsed again.
+ * <p>
+ * The cache is bounded both in size, dropping the least recently used strings first, and in
+ * time, parsing a string afresh once its entry is older than the time to live. The time to
+ * live also bounds how stale an answer may be for a date that depends upon the current time,
+ * such as one with no year. Relative dates such as "+3" or "-1M" are never cached, and
+ * neither are strings that cannot be parsed.
+ * </p>
+ * <p>
+ * An instance is safe to share between threads. The cache is split into segments, each with
+ * its own lock, so that threads looking up different strings rarely wait on one another.
+ * </p>
+ * <pre>
+ * CachingDateTimeParser parser = new CachingDateTimeParser(config, 10000, Duration.MINUTE);
+ * long millis = parser.parseToMillis(line.substring(0, 15));
+ * </pre>
+ *
+ * @author John Pile
+ */
+public class CachingDateTimeParser {
+
+    private static final int SEGMENTS = 16;
+
+    private final IDateTimeConfig config;
+    private final long ttlNanos;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * @param config     Configuration parameters governing parsing, unless one is given
+     * @param maxEntries Most strings remembered
+     * @param ttlMillis  Milliseconds for which a parsed string is remembered
+     */
+    public CachingDateTimeParser(IDateTimeConfig config, int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, not " + maxEntries + ".");
+        }
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("Time to live must be positive, not " + ttlMillis + ".");
+        }
+        this.config = config == null ? DateTimeConfig.getGlobalDefault() : config;
+        this.ttlNanos = ttlMillis > Long.MAX_VALUE / 1000000 ? Long.MAX_VALUE : ttlMillis * 1000000;
+        int capacity = (maxEntries + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Interpret a DateTime from a String.
+     *
+     * @param str Date/Time string to be parsed
+     * @return New DateTime interpreted from string
+     */
+    public DateTime parse(CharSequence str) {
+        return parse(str, config);
+    }
+
+    /**
+     * Interpret a DateTime from a String, under a config other than that of this parser.
+     * Strings are cached separately for each config.
+     *
+     * @param str    Date/Time string to be parsed
+     * @param config Configuration parameters governing parsing and presentation
+     * @return New DateTime interpreted from string
+     */
+    public DateTime parse(CharSequence str, IDateTimeConfig config) {
+        if (config == null) {
+            config = this.config;
+        }
+        if (str == null) {
+            return new DateTime(config.systemTime(), config);
+        }
+        Entry entry = lookup(str, config);
+        DateTime dt = new DateTime(entry.millis, config);
+        dt.systemDur.nanos = entry.nanos;
+        return dt;
+    }
+
+    /**
+     * Interpret milliseconds since epoch from a date string.
+     *
+     * @param str Date/Time string to be parsed
+     * @return Milliseconds since epoch interpreted from string
+     */
+    public long parseToMillis(CharSequence str) {
+        return parseToMillis(str, config);
+    }
+
+    /**
+     * Interpret milliseconds since epoch from a date string, under a config other than that
+     * of this parser. Strings are cached separately for each config.
+     *
+     * @param str    Date/Time string to be parsed
+     * @param config Configuration parameters governing parsing
+     * @return Milliseconds since epoch interpreted from string
+     */
+    public long parseToMillis(CharSequence str, IDateTimeConfig config) {
+        if (config == null) {
+            config = this.config;
+        }
+        if (str == null) {
+            return config.systemTime();
+        }
+        return lookup(str, config).millis;
+    }
+
+    private Entry lookup(CharSequence str, IDateTimeConfig config) {
+        if (isRelative(str)) {
+            return parse(str, config, 0);
+        }
+        Key key = new Key(str.toString(), config);
+        Segment segment = segments[(key.hash ^ key.hash >>> 16) & (SEGMENTS - 1)];
+        long now = System.nanoTime();
+        Entry entry = segment.fetch(key, now, ttlNanos);
+        if (entry == null) {
+            // Parse outside of the lock. Two threads may parse the same string at once.
+            entry = parse(key.str, config, now);
+            segment.store(key, entry);
+        }
+        return entry;
+    }
+
+    private static Entry parse(CharSequence str, IDateTimeConfig config, long now) {
+        DateTime.ParseScratch scratch = DateTime.ParseScratch.acquire();
+        try {
+            DateTime.parse(str, 0, str.length(), config, scratch);
+            return new Entry(scratch.millis, scratch.nanos, now);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Relative dates, such as "+3", "-1M" or "2Y", are measured from the current time.
+     */
+    private static boolean isRelative(CharSequence str) {
+        int start = 0;
+        int end = str.length();
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        char first = str.charAt(start);
+        if (first == '+' || first == '-') {
+            return true;
+        }
+        char last = Character.toUpperCase(str.charAt(end - 1));
+        return (last == 'D' || last == 'M' || last == 'Y') && end - start > 1
+                && str.charAt(end - 2) >= '0' && str.charAt(end - 2) <= '9';
+    }
+
+    /**
+     * @return Number of lookups answered from the cache
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return Number of lookups that had to parse, counting those of expired entries
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return Number of strings remembered, including any that have expired but have not
+     *         yet been dropped
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Forget every string, leaving the counters as they are.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * A date string, and the identity of the config under which it was parsed.
+     */
+    private static final class Key {
+        private final String str;
+        private final IDateTimeConfig config;
+        private final int hash;
+
+        private Key(String str, IDateTimeConfig config) {
+            this.str = str;
+            this.config = config;
+            this.hash = str.hashCode() * 31 + System.identityHashCode(config);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && config == other.config && str.equals(other.str);
+        }
+    }
+
+    /**
+     * A parsed instant, and when it was parsed.
+     */
+    private static final class Entry {
+        private final long millis;
+        private final int nanos;
+        private final long created;
+
+        private Entry(long millis, int nanos, long created) {
+            this.millis = millis;
+            this.nanos = nanos;
+            this.created = created;
+        }
+    }
+
+    /**
+     * A share of the cache, in least recently used order, guarded by its own lock.
+     */
+    private static final class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private long hits;
+        private long misses;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        private synchronized Entry fetch(Key key, long now, long ttlNanos) {
+            Entry entry = get(key);
+            if (entry != null && now - entry.created >= ttlNanos) {
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+            return entry;
+        }
+
+        private synchronized void store(Key key, Entry entry) {
+            put(key, entry);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.pojava.datetime;
+
+/**
+ * DateLexer prepares a date string for the heuristics of DateTime.parse, in place of the
+ * regular expressions it once used. It separates fields that were run together, such as the
+ * "15" and "JAN" of "15JAN2024", and breaks the string into its parts: the runs of letters
+ * and digits between separators. Parts are kept as positions in the string, not copied out
+ * of it.
+ * <p>
+ * Each parse reuses the arrays of its lexer, so one DateLexer belongs to one thread at a
+ * time.
+ * </p>
+ *
+ * @author John Pile
+ */
+final class DateLexer {
+
+    /**
+     * The string last split
+     */
+    String str;
+    /**
+     * Position in str of the first character of each part
+     */
+    int[] starts = new int[16];
+    /**
+     * Position in str just past each part
+     */
+    int[] ends = new int[16];
+    /**
+     * True for each part beginning with a digit
+     */
+    boolean[] integers = new boolean[16];
+    /**
+     * Number of parts
+     */
+    int count;
+
+    private char[] chars = new char[64];
+
+    /**
+     * Separate the fields of an upper case date string. The first digit-T-digit has its T
+     * replaced with a space, and a space is placed between a digit and the letters following
+     * it (as in 10AM, but leaving the D, M and Y of relative dates such as 3D alone), and
+     * between three letters and a digit following them (as in JAN2024).
+     *
+     * @param str    Upper case date string
+     * @param expand False to replace the T alone
+     * @return The separated string, or str itself if nothing needed to change
+     */
+    String separate(String str, boolean expand) {
+        int len = str.length();
+        if (chars.length < len * 3) {
+            chars = new char[len * 3];
+        }
+        // The source goes to the back of the buffer, leaving room in front for spaces.
+        int src = len * 2;
+        str.getChars(0, len, chars, src);
+        boolean replaced = false;
+        // A string beginning with T is left with all of its Ts.
+        boolean replacing = len > 0 && chars[src] != 'T';
+        boolean expanding = expand;
+        for (int i = 0; i < len; i++) {
+            char c = chars[src + i];
+            if (c == 'T' && replacing && i > 0 && i + 1 < len && isDigit(chars[src + i - 1])
+                    && isDigit(chars[src + i + 1])) {
+                chars[src + i] = ' ';
+                replaced = true;
+                replacing = false;
+            } else if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                // Fields are not separated across lines.
+                expanding = false;
+            }
+        }
+        int out = 0;
+        if (expanding) {
+            for (int i = 0; i < len; i++) {
+                char c = chars[src + i];
+                if (isDigit(c)) {
+                    if (i >= 3 && isUpper(chars[src + i - 3]) && isUpper(chars[src + i - 2])
+                            && isUpper(chars[src + i - 1])) {
+                        chars[out++] = ' ';
+                    }
+                    chars[out++] = c;
+                    if (i + 1 < len && (chars[src + i + 1] == 'Z' || i + 2 < len
+                            && isUpper(chars[src + i + 1]) && chars[src + i + 1] != 'Z'
+                            && isUpper(chars[src + i + 2]) && chars[src + i + 2] != 'Z')) {
+                        chars[out++] = ' ';
+                    }
+                } else {
+                    chars[out++] = c;
+                }
+            }
+        } else {
+            System.arraycopy(chars, src, chars, 0, len);
+            out = len;
+        }
+        if (!replaced && out == len) {
+            return str;
+        }
+        return new String(chars, 0, out);
+    }
+
+    /**
+     * Break a string into its parts, the runs of letters and digits between other characters.
+     * As with String.split, a string beginning with a separator has an empty first part.
+     *
+     * @param str Date string
+     */
+    void split(String str) {
+        this.str = str;
+        int len = str.length();
+        count = 0;
+        int start = 0;
+        int pos = 0;
+        boolean separated = false;
+        while (pos < len) {
+            int cp = str.codePointAt(pos);
+            if (isDigit(cp) || Character.isLetter(cp)) {
+                pos += Character.charCount(cp);
+                continue;
+            }
+            int end = pos;
+            pos += Character.charCount(cp);
+            while (pos < len) {
+                cp = str.codePointAt(pos);
+                if (isDigit(cp) || Character.isLetter(cp)) {
+                    break;
+                }
+                pos += Character.charCount(cp);
+            }
+            add(start, end);
+            start = pos;
+            separated = true;
+        }
+        add(start, len);
+        if (separated) {
+            // Trailing empty parts are dropped.
+            while (count > 0 && starts[count - 1] == ends[count - 1]) {
+                count--;
+            }
+        }
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            int[] grownStarts = new int[count * 2];
+            System.arraycopy(starts, 0, grownStarts, 0, count);
+            starts = grownStarts;
+            int[] grownEnds = new int[count * 2];
+            System.arraycopy(ends, 0, grownEnds, 0, count);
+            ends = grownEnds;
+            boolean[] grownIntegers = new boolean[count * 2];
+            System.arraycopy(integers, 0, grownIntegers, 0, count);
+            integers = grownIntegers;
+        }
+        starts[count] = start;
+        ends[count] = end;
+        integers[count] = end > start && isDigit(str.charAt(start));
+        count++;
+    }
+
+    /**
+     * @param str Date string
+     * @return True if the string begins like Date.toString(), as in "WED JAN 15 "
+     */
+    static boolean isDateToString(String str) {
+        return str.length() > 11 && isUpper(str.charAt(0)) && isUpper(str.charAt(1)) && isUpper(str.charAt(2))
+                && str.charAt(3) == ' ' && isUpper(str.charAt(4)) && isUpper(str.charAt(5)) && isUpper(str.charAt(6))
+                && str.charAt(7) == ' ' && isDigit(str.charAt(8)) && isDigit(str.charAt(9)) && str.charAt(10) == ' ';
+    }
+
+    /**
+     * @param str Date string
+     * @return True if, leaving out times such as 10:30 and words, only one number remains
+     */
+    static boolean isLoneNumber(String str) {
+        int len = str.length();
+        // 0 before the number, 1 within it, 2 after it
+        int state = 0;
+        int pos = 0;
+        while (pos < len) {
+            char c = str.charAt(pos);
+            if (isDigit(c)) {
+                int end = pos + 1;
+                while (end < len && isDigit(str.charAt(end))) {
+                    end++;
+                }
+                if (end + 1 < len && str.charAt(end) == ':'
+                        && (isDigit(str.charAt(end + 1)) || str.charAt(end + 1) == ':')) {
+                    // A time
+                    pos = end + 2;
+                    while (pos < len && (isDigit(str.charAt(pos)) || str.charAt(pos) == ':')) {
+                        pos++;
+                    }
+                    continue;
+                }
+                if (state == 2) {
+                    return false;
+                }
+                state = 1;
+                pos = end;
+            } else if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') {
+                // A word
+                pos++;
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (state == 1) {
+                    state = 2;
+                }
+                pos++;
+            } else {
+                return false;
+            }
+        }
+        return state != 0;
+    }
+
+    /**
+     * Take a time zone descriptor out of a date string, leaving a space in its place. If the
+     * same characters appear earlier in the string, it is the first of them that is taken.
+     *
+     * @param str   Date string
+     * @param start Position of the first character of the descriptor
+     * @param end   Position just past the descriptor
+     * @return The string without the descriptor
+     */
+    String remove(String str, int start, int end) {
+        int size = end - start;
+        int pos = 0;
+        while (!str.regionMatches(pos, str, start, size)) {
+            pos++;
+        }
+        int len = str.length();
+        if (pos == len - 1 - size) {
+            return str.substring(0, pos);
+        }
+        if (chars.length < len) {
+            chars = new char[len];
+        }
+        str.getChars(0, pos, chars, 0);
+        chars[pos] = ' ';
+        str.getChars(pos + size, len, chars, pos + 1);
+        return new String(chars, 0, len - size + 1);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+}
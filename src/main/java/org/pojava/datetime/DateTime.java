@@ -18,11 +18,9 @@ package org.pojava.datetime;
 
 import java.io.Serializable;
 import java.sql.Timestamp;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
-import java.util.regex.Pattern;
 
 /**
  * <p>
@@ -76,6 +74,15 @@ import java.util.regex.Pattern;
  */
 public class DateTime implements Serializable, Comparable<DateTime> {
 
+    /**
+     * Marks a time zone descriptor that is not a numeric offset
+     */
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    /**
+     * Marks a numeric offset beyond +/-23:59
+     */
+    private static final int BAD_OFFSET = Integer.MAX_VALUE;
+
     private static final long serialVersionUID = 300L;
 
     /**
@@ -98,7 +105,6 @@ public class DateTime implements Serializable, Comparable<DateTime> {
      */
     protected Duration systemDur = null;
 
-    private static final Pattern partsPattern = Pattern.compile("[^\\p{L}\\d]+");
 
     /**
      * Default constructor gives current time to millisecond.
@@ -271,13 +277,13 @@ public class DateTime implements Serializable, Comparable<DateTime> {
     }
 
     /**
-     * Derive a time zone descriptor from the right side of the date/time string.
+     * Find a time zone descriptor on the right side of the date/time string.
      *
      * @param str String to parse date/time
-     * @return TimeZone id descriptor extracted from string (null if not found)
+     * @return Position of the first character of the time zone descriptor, which runs to the
+     *         end of the string (-1 if not found)
      */
-    private static String tzParse(String str) {
-        char[] chars = str.toCharArray();
+    private static int tzStart(String str) {
         int min = 7; // Any less than 7 characters from left would encroach on the date itself
         int max = str.length() - 1;
         int idx = max;
@@ -285,7 +291,7 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         // Working right to left, skip past numbers, colons, and four-digit years
         boolean digitsOnly=true;
         while (idx > min) {
-            c = chars[idx];
+            c = str.charAt(idx);
             if (c >= '0' && c <= '9' || c == ' ' && idx==max-4 && digitsOnly) {
                 idx--;
             } else if (c == ':') {
@@ -297,11 +303,11 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         }
         // Recognize numeric offset such as -0800 or +05:30
         if (idx >= min && (c == '+' || c == '-')) {
-            return str.substring(idx);
+            return idx;
         }
         // Still here?  Looking for a non-numeric time zone like "EST" or "America/New_York"
         while (idx >= min) {
-            c = chars[idx];
+            c = str.charAt(idx);
             if (c >= 'A' && c <= 'Z' || c == '_' || c == '/' || c >= '0' && c <= '9') {
                 // rewind to just before the beginning of a word
                 idx--;
@@ -309,7 +315,7 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                 // set index to first character of that word
                 ++idx;
                 // skip past any numbers
-                while (idx < max && chars[idx] >= '0' && chars[idx] <= '9') {
+                while (idx < max && str.charAt(idx) >= '0' && str.charAt(idx) <= '9') {
                     if (++idx == max) {
                         break;
                     }
@@ -318,13 +324,60 @@ public class DateTime implements Serializable, Comparable<DateTime> {
             }
         }
         if (idx < min || idx > max) {
-            return null;
+            return -1;
         }
-        c = chars[idx];
+        c = str.charAt(idx);
         if (c >= 'A' && c <= 'Z') {
-            return str.substring(idx);
+            return idx;
+        }
+        return -1;
+    }
+
+    /**
+     * Read a numeric offset of the form +hh:mm or +hhmm. As a guard against years such as
+     * -1999, an offset must end in zero.
+     *
+     * @param str   String to parse date/time
+     * @param start Position of the sign
+     * @param end   Position just past the offset
+     * @return Offset in seconds east of UTC, NO_OFFSET if the range is not an offset, or
+     *         BAD_OFFSET if it is out of range
+     */
+    private static int parseOffset(String str, int start, int end) {
+        int size = end - start;
+        char sign = str.charAt(start);
+        if (size != 5 && size != 6 || sign != '+' && sign != '-' || str.charAt(end - 1) != '0') {
+            return NO_OFFSET;
+        }
+        int hours = digitPair(str, start + 1);
+        int minutes = size == 6 ? str.charAt(start + 3) == ':' ? digitPair(str, start + 4) : -1 : digitPair(str, start + 3);
+        if (hours < 0 || minutes < 0) {
+            return NO_OFFSET;
+        }
+        if (hours > 23 || minutes > 59) {
+            return BAD_OFFSET;
         }
-        return null;
+        int seconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    /**
+     * @return Value of two decimal digits, or -1 if they are not both digits
+     */
+    private static int digitPair(String str, int pos) {
+        char tens = str.charAt(pos);
+        char ones = str.charAt(pos + 1);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + ones - '0';
+    }
+
+    /**
+     * @return True if the range holds exactly the given word
+     */
+    private static boolean isWord(String str, int start, int end, String word) {
+        return end - start == word.length() && str.startsWith(word, start);
     }
 
     /**
@@ -470,9 +523,10 @@ public class DateTime implements Serializable, Comparable<DateTime> {
     }
 
     private DateTime shiftUsingRecalculatedOffset(long milliseconds) {
-        long beginningOffset = config.getOutputTimeZone().getOffset(toMillis());
+        ZoneOffsets offsets = ZoneOffsets.of(config.getOutputTimeZone());
+        long beginningOffset = offsets.getOffset(toMillis());
         long unadjustedShift = toMillis() + milliseconds;
-        long endingOffset = config.getOutputTimeZone().getOffset(unadjustedShift);
+        long endingOffset = offsets.getOffset(unadjustedShift);
         return add(milliseconds - beginningOffset + endingOffset);
     }
 
@@ -513,22 +567,22 @@ public class DateTime implements Serializable, Comparable<DateTime> {
             }
         }
         /* Calendar periods (same time, different day) */
-        Calendar cal = Calendar.getInstance(config().getInputTimeZone(), config().getLocale());
-        cal.setTimeInMillis(this.systemDur.millis);
+        TimeZone tz = config().getInputTimeZone();
+        long millis = this.systemDur.millis;
         if (calUnit == CalendarUnit.DAY) {
-            cal.add(Calendar.DATE, qty);
+            millis = Tm.addDays(millis, qty, tz);
         } else if (calUnit == CalendarUnit.WEEK) {
-            cal.add(Calendar.DATE, qty * 7);
+            millis = Tm.addDays(millis, qty * 7, tz);
         } else if (calUnit == CalendarUnit.MONTH) {
-            cal.add(Calendar.MONTH, qty);
+            millis = Tm.addMonths(millis, qty, tz);
         } else if (calUnit == CalendarUnit.QUARTER) {
-            cal.add(Calendar.MONTH, qty * 3);
+            millis = Tm.addMonths(millis, qty * 3, tz);
         } else if (calUnit == CalendarUnit.YEAR) {
-            cal.add(Calendar.YEAR, qty);
+            millis = Tm.addMonths(millis, qty * 12L, tz);
         } else if (calUnit == CalendarUnit.CENTURY) {
-            cal.add(Calendar.YEAR, 100 * qty);
+            millis = Tm.addMonths(millis, 100 * qty * 12L, tz);
         }
-        return new DateTime(cal.getTimeInMillis() / 1000, systemDur.getNanos(), config);
+        return new DateTime(millis / 1000, systemDur.getNanos(), config);
     }
 
     /**
@@ -541,30 +595,11 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         if (shift == null) {
             return this;
         }
-        Calendar cal = Calendar.getInstance(config().getOutputTimeZone(), config().getLocale());
-        cal.setTimeInMillis(this.systemDur.millis);
-        if (shift.getYear() != 0) {
-            cal.add(Calendar.YEAR, shift.getYear());
-        }
-        if (shift.getMonth() != 0) {
-            cal.add(Calendar.MONTH, shift.getMonth());
-        }
-        if (shift.getWeek() != 0) {
-            cal.add(Calendar.DATE, shift.getWeek() * 7);
-        }
-        if (shift.getDay() != 0) {
-            cal.add(Calendar.DATE, shift.getDay());
-        }
-        if (shift.getHour() != 0) {
-            cal.add(Calendar.HOUR, shift.getHour());
-        }
-        if (shift.getMinute() != 0) {
-            cal.add(Calendar.MINUTE, shift.getMinute());
-        }
-        if (shift.getSecond() != 0) {
-            cal.add(Calendar.SECOND, shift.getSecond());
-        }
-        return new DateTime(cal.getTimeInMillis() / 1000, systemDur.getNanos() + shift.getNanosec(), config);
+        long millis = Tm.addPeriod(this.systemDur.millis, shift.getYear(), shift.getMonth(), shift.getWeek(),
+                shift.getDay(), config().getOutputTimeZone());
+        // Hours, minutes and seconds are elapsed time.
+        millis += shift.getHour() * 3600000L + shift.getMinute() * 60000L + shift.getSecond() * 1000L;
+        return new DateTime(millis / 1000, systemDur.getNanos() + shift.getNanosec(), config);
     }
 
     /**
@@ -587,7 +622,7 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         // Adding 2000 years in weeks makes all calculations positive.
         // Adding epoch DOW shifts us into phase with start of week.
         long offset = config().getEpochDOW() * Duration.DAY + 52 * Duration.WEEK * 2000;
-        leftover = offset + this.toMillis() + config().getOutputTimeZone().getOffset(this.toMillis());
+        leftover = offset + this.toMillis() + ZoneOffsets.getOffset(config().getOutputTimeZone(), this.toMillis());
         leftover %= Duration.WEEK;
         leftover /= Duration.DAY;
         // Convert from zero to one based
@@ -657,6 +692,10 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         boolean minute;
         boolean second;
         boolean nanosecond;
+
+        void reset() {
+            year = month = day = hour = minute = second = nanosecond = false;
+        }
     }
 
     private static class DateState {
@@ -672,17 +711,165 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         int minute;
         int second;
         int nanosecond;
-        String[] parts;
+        /**
+         * The string whose parts these are, each from starts[i] to just before ends[i]
+         */
+        String str;
+        int[] starts;
+        int[] ends;
         boolean[] integers;
-        boolean[] usedint;
+        boolean[] usedint = new boolean[16];
+        int count;
+
+        void reset() {
+            isYearFirst = isTwoDigitYear = isBC = false;
+            centuryTurn = thisYear = year = month = hour = minute = second = nanosecond = 0;
+            day = 1;
+            str = null;
+            starts = ends = null;
+            integers = null;
+            count = 0;
+        }
+
+        /**
+         * Take the parts of a string from its lexer, none of them yet used.
+         */
+        void setParts(DateLexer lexer) {
+            str = lexer.str;
+            starts = lexer.starts;
+            ends = lexer.ends;
+            integers = lexer.integers;
+            count = lexer.count;
+            if (usedint.length < count) {
+                usedint = new boolean[starts.length];
+            }
+            for (int i = 0; i < count; i++) {
+                usedint[i] = false;
+            }
+        }
+
+        int length(int part) {
+            return ends[part] - starts[part];
+        }
+
+        /**
+         * @return Position of c within the part, or -1 if it is not there
+         */
+        int indexOf(int part, char c) {
+            for (int pos = starts[part]; pos < ends[part]; pos++) {
+                if (str.charAt(pos) == c) {
+                    return pos - starts[part];
+                }
+            }
+            return -1;
+        }
+
+        boolean endsWith(int part, String suffix) {
+            return length(part) >= suffix.length()
+                    && str.regionMatches(ends[part] - suffix.length(), suffix, 0, suffix.length());
+        }
+
+        /**
+         * @return The number with which the part begins
+         */
+        int intValue(int part) {
+            return parseIntFragment(str, starts[part], ends[part]);
+        }
+
+        /**
+         * @return The number held in characters from and to of the part, which must all be digits
+         * @throws NumberFormatException as Integer.parseInt would
+         */
+        int digits(int part, int from, int to) {
+            long parsed = 0;
+            int pos = starts[part] + from;
+            int end = starts[part] + to;
+            for (; pos < end; pos++) {
+                char c = str.charAt(pos);
+                if (c < '0' || c > '9' || (parsed = parsed * 10 + c - '0') > Integer.MAX_VALUE) {
+                    break;
+                }
+            }
+            if (pos < end || to == from) {
+                throw new NumberFormatException("For input string: \"" + str.substring(starts[part] + from, end) + "\"");
+            }
+            return (int) parsed;
+        }
+
+        /**
+         * @return The leading digits of the part as nanoseconds, the first of them tenths
+         */
+        int fraction(int part) {
+            int nanos = 0;
+            int digits = 0;
+            for (int pos = starts[part]; pos < ends[part] && digits < 9; pos++, digits++) {
+                char c = str.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                nanos = nanos * 10 + c - '0';
+            }
+            for (; digits < 9; digits++) {
+                nanos *= 10;
+            }
+            return nanos;
+        }
+    }
+
+    /**
+     * Working state of a parse. Each thread keeps one, so that parsing to a primitive leaves
+     * no DateTime, Duration or Tm behind.
+     */
+    static final class ParseScratch {
+        private static final ThreadLocal<ParseScratch> PER_THREAD = new ThreadLocal<ParseScratch>() {
+            @Override
+            protected ParseScratch initialValue() {
+                return new ParseScratch();
+            }
+        };
+
+        private final HasDatepart hasDatepart = new HasDatepart();
+        private final DateState dateState = new DateState();
+        private final Tm tm = new Tm();
+        private final DateLexer lexer = new DateLexer();
+        private final AsciiSequence ascii = new AsciiSequence();
+        private boolean inUse;
+        /**
+         * The parsed instant
+         */
+        long millis;
+        int nanos;
+
+        /**
+         * @return This thread's scratch state, or a new one if it is already in use
+         */
+        static ParseScratch acquire() {
+            ParseScratch scratch = PER_THREAD.get();
+            if (scratch.inUse) {
+                scratch = new ParseScratch();
+            }
+            scratch.inUse = true;
+            return scratch;
+        }
+
+        void release() {
+            inUse = false;
+            ascii.clear();
+        }
+
+        DateTime toDateTime(IDateTimeConfig config) {
+            DateTime dt = new DateTime(millis, config);
+            dt.systemDur.nanos = nanos;
+            return dt;
+        }
     }
 
     public static void assignIntegersToRemainingSlots(IDateTimeConfig config, HasDatepart hasDatepart,
                                                       DateState dateState) {
         // Assign integers to remaining slots in order
-        for (int i = 0; i < dateState.parts.length; i++) {
+        for (int i = 0; i < dateState.count; i++) {
             if (dateState.integers[i] && !dateState.usedint[i]) {
-                int part = parseIntFragment(dateState.parts[i]);
+                int part = dateState.intValue(i);
                 if (!hasDatepart.day && part < 32 && config.isDmyOrder()) {
                     /*
                      * If one sets the isDmyOrder to true in DateTimeConfig, then this will properly interpret DD before MM in
@@ -738,12 +925,17 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                     }
                     dateState.hour = part;
                     hasDatepart.hour = true;
-                    if (dateState.parts[i].indexOf('H') == -1) {
+                    int h = dateState.indexOf(i, 'H');
+                    if (h == -1) {
                         dateState.usedint[i] = true;
                         continue;
                     }
-                    dateState.parts[i] = dateState.parts[i].substring(dateState.parts[i].indexOf('H') + 1);
-                    part = parseIntFragment(dateState.parts[i]);
+                    if (h + 1 == dateState.length(i)) {
+                        throw new IllegalArgumentException("No minute parsed after ["
+                                + dateState.str.substring(dateState.starts[i], dateState.ends[i]) + "].");
+                    }
+                    dateState.starts[i] += h + 1;
+                    part = dateState.intValue(i);
                 }
                 if (!hasDatepart.minute) {
                     if (part >= 60) {
@@ -751,12 +943,17 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                     }
                     dateState.minute = part;
                     hasDatepart.minute = true;
-                    if (dateState.parts[i].indexOf('M') == -1) {
+                    int m = dateState.indexOf(i, 'M');
+                    if (m == -1) {
                         dateState.usedint[i] = true;
                         continue;
                     }
-                    dateState.parts[i] = dateState.parts[i].substring(dateState.parts[i].indexOf('M') + 1);
-                    part = parseIntFragment(dateState.parts[i]);
+                    if (m + 1 == dateState.length(i)) {
+                        throw new IllegalArgumentException("No second parsed after ["
+                                + dateState.str.substring(dateState.starts[i], dateState.ends[i]) + "].");
+                    }
+                    dateState.starts[i] += m + 1;
+                    part = dateState.intValue(i);
                 }
                 if (!hasDatepart.second) {
                     if (part < 60 || part == 60 && dateState.minute == 59 && dateState.hour == 23 && dateState.day >= 30
@@ -773,7 +970,7 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                     if (part >= 1000000000) {
                         throw new IllegalArgumentException("Invalid nanosecond parsed from [" + part + "].");
                     }
-                    dateState.nanosecond = Integer.parseInt((dateState.parts[i].split("[^0-9]+")[0] + "00000000").substring(0, 9));
+                    dateState.nanosecond = dateState.fraction(i);
                     hasDatepart.nanosecond = true;
                     dateState.usedint[i] = true;
                 }
@@ -784,9 +981,9 @@ public class DateTime implements Serializable, Comparable<DateTime> {
     private static void scanForTextualMonth(IDateTimeConfig config, HasDatepart hasDatepart,
                                             DateState dateState) {
         // First, scan for text month
-        for (int i = 0; i < dateState.parts.length; i++) {
-            if (!dateState.integers[i] && dateState.parts[i].length() > 2) {
-                Integer monthIndex = config.lookupMonthIndex(dateState.parts[i]);
+        for (int i = 0; i < dateState.count; i++) {
+            if (!dateState.integers[i] && dateState.length(i) > 2) {
+                Integer monthIndex = config.lookupMonthIndex(dateState.str, dateState.starts[i], dateState.ends[i]);
 
                 if (monthIndex != null) {
                     dateState.month = monthIndex;
@@ -805,11 +1002,11 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         /**
          * Adjust 12AM and 1-11PM.
          */
-        for (String part : dateState.parts) {
-            if (part.endsWith("M")) {
-                if (part.endsWith("PM") && dateState.hour > 0 && dateState.hour < 12) {
+        for (int i = 0; i < dateState.count; i++) {
+            if (dateState.endsWith(i, "M")) {
+                if (dateState.endsWith(i, "PM") && dateState.hour > 0 && dateState.hour < 12) {
                     dateState.hour += 12;
-                } else if (part.endsWith("AM") && dateState.hour == 12) {
+                } else if (dateState.endsWith(i, "AM") && dateState.hour == 12) {
                     dateState.hour = 0;
                 }
             }
@@ -818,26 +1015,26 @@ public class DateTime implements Serializable, Comparable<DateTime> {
 
     private static void scanForYYYYOrYYYYMMDD(IDateTimeConfig config, HasDatepart hasDatepart, DateState dateState) {
         // Scan for 4-digit year or an 8 digit YYYYMMDD
-        for (int i = 0; i < dateState.parts.length; i++) {
+        for (int i = 0; i < dateState.count; i++) {
             if (dateState.integers[i] && !dateState.usedint[i]) {
-                if (!hasDatepart.year && (dateState.parts[i].length() == 4 || dateState.parts[i].length() == 5)) {
-                    char c = dateState.parts[i].charAt(dateState.parts[i].length() - 1);
+                if (!hasDatepart.year && (dateState.length(i) == 4 || dateState.length(i) == 5)) {
+                    char c = dateState.str.charAt(dateState.ends[i] - 1);
                     if (c >= '0' && c <= '9') {
-                        dateState.year = parseIntFragment(dateState.parts[i]);
+                        dateState.year = dateState.intValue(i);
                         hasDatepart.year = true;
                         dateState.usedint[i] = true;
                         dateState.isYearFirst = (i == 0);
                         // If integer is to the immediate left of year, use now.
                         if (config.isDmyOrder()) {
                             if (!hasDatepart.month && i > 0 && dateState.integers[i - 1] && !dateState.usedint[i - 1]) {
-                                dateState.month = parseIntFragment(dateState.parts[i - 1]);
+                                dateState.month = dateState.intValue(i - 1);
                                 dateState.month--;
                                 hasDatepart.month = true;
                                 dateState.usedint[i - 1] = true;
                             }
                         } else {
                             if (!hasDatepart.day && i > 0 && dateState.integers[i - 1] && !dateState.usedint[i - 1]) {
-                                dateState.day = parseIntFragment(dateState.parts[i - 1]);
+                                dateState.day = dateState.intValue(i - 1);
                                 hasDatepart.day = true;
                                 dateState.usedint[i - 1] = true;
                             }
@@ -845,11 +1042,11 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                         break;
                     }
                 }
-                if (!hasDatepart.year && !hasDatepart.month && !hasDatepart.day && dateState.parts[i].length() == 8) {
-                    dateState.year = Integer.parseInt(dateState.parts[i].substring(0, 4));
-                    dateState.month = Integer.parseInt(dateState.parts[i].substring(4, 6));
+                if (!hasDatepart.year && !hasDatepart.month && !hasDatepart.day && dateState.length(i) == 8) {
+                    dateState.year = dateState.digits(i, 0, 4);
+                    dateState.month = dateState.digits(i, 4, 6);
                     dateState.month--;
-                    dateState.day = Integer.parseInt(dateState.parts[i].substring(6, 8));
+                    dateState.day = dateState.digits(i, 6, 8);
                     hasDatepart.year = true;
                     hasDatepart.month = true;
                     hasDatepart.day = true;
@@ -882,16 +1079,6 @@ public class DateTime implements Serializable, Comparable<DateTime> {
 
     }
 
-    private static String extract(String str, String remove) {
-        int pos=str.indexOf(remove);
-        int size=remove.length();
-        if (pos == str.length() - 1 - size) {
-            return str.substring(0, pos);
-        }
-        return str.substring(0, pos) + " " + str.substring(pos + size);
-    }
-
-
     /**
      * Interpret a DateTime from a String.
      *
@@ -900,67 +1087,310 @@ public class DateTime implements Serializable, Comparable<DateTime> {
      * @return New DateTime interpreted from string according to alternate rules.
      */
     public static DateTime parse(String str, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        if (str == null) {
+            return new DateTime(config.systemTime(), config);
+        }
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            parse(str, config, scratch);
+            return scratch.toDateTime(config);
+        } finally {
+            scratch.release();
+        }
+    }
 
-        HasDatepart hasDatepart = new HasDatepart();
-        DateState dateState = new DateState();
+    /**
+     * Interpret milliseconds since epoch from a date string, without creating a DateTime.
+     * ISO-8601 dates are parsed without allocating anything at all.
+     *
+     * @param str    Date/Time string to be parsed.
+     * @param config Configuration parameters governing parsing.
+     * @return Milliseconds since epoch interpreted from string.
+     */
+    public static long parseToMillis(CharSequence str, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        if (str == null) {
+            return config.systemTime();
+        }
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            parse(str, config, scratch);
+            return scratch.millis;
+        } finally {
+            scratch.release();
+        }
+    }
 
+    /**
+     * Interpret nanoseconds since epoch from a date string, without creating a DateTime.
+     * ISO-8601 dates are parsed without allocating anything at all.
+     *
+     * @param str    Date/Time string to be parsed.
+     * @param config Configuration parameters governing parsing.
+     * @return Nanoseconds since epoch interpreted from string.
+     * @throws IllegalArgumentException if the date cannot be parsed, or lies too far from
+     *                                  1970 to count in nanoseconds (about 292 years).
+     */
+    public static long parseToEpochNanos(CharSequence str, IDateTimeConfig config) {
         if (config == null) {
             config = DateTimeConfig.getGlobalDefault();
         }
+        long millis;
+        int nanos;
         if (str == null) {
-            return new DateTime(config.systemTime(), config);
+            millis = config.systemTime();
+            nanos = (int) ((millis % 1000 + 1000) % 1000) * 1000000;
+        } else {
+            ParseScratch scratch = ParseScratch.acquire();
+            try {
+                parse(str, config, scratch);
+                millis = scratch.millis;
+                nanos = scratch.nanos;
+            } finally {
+                scratch.release();
+            }
+        }
+        // Nanos are never negative, so seconds round toward negative infinity.
+        long seconds = (millis - nanos / 1000000) / 1000;
+        if (seconds > (Long.MAX_VALUE - nanos) / 1000000000L
+                || seconds + 1 < (Long.MIN_VALUE + 1000000000L - nanos) / 1000000000L) {
+            throw new IllegalArgumentException("Date parsed from '" + str + "' is out of range for epoch nanoseconds.");
+        }
+        return seconds * 1000000000L + nanos;
+    }
+
+    /**
+     * Interpret a DateTime from a range of characters, such as one field of a record held in
+     * a StringBuilder or CharBuffer. ISO-8601 dates are read in place; other layouts are copied
+     * once into a String for the heuristics. Whitespace around the date is ignored.
+     *
+     * @param str    Characters holding the date.
+     * @param start  Position of the first character of the date.
+     * @param end    Position just past the last character of the date.
+     * @param config Configuration parameters governing parsing and presentation.
+     * @return New DateTime interpreted from the range.
+     * @throws IndexOutOfBoundsException if the range does not lie within str.
+     */
+    public static DateTime parse(CharSequence str, int start, int end, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        checkRange(str, start, end);
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            parse(str, start, end, config, scratch);
+            return scratch.toDateTime(config);
+        } finally {
+            scratch.release();
         }
+    }
+
+    /**
+     * Interpret a DateTime from ASCII text in a byte array, such as a field of a record read
+     * into an I/O buffer. ISO-8601 dates are read in place; other layouts are decoded once into
+     * a String for the heuristics. Whitespace around the date is ignored.
+     *
+     * @param ascii  Characters encoded one per byte.
+     * @param offset Position of the first byte of the date.
+     * @param length Number of bytes in the date.
+     * @param config Configuration parameters governing parsing and presentation.
+     * @return New DateTime interpreted from the bytes.
+     * @throws IndexOutOfBoundsException if the range does not lie within the array.
+     */
+    public static DateTime parse(byte[] ascii, int offset, int length, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            AsciiSequence chars = scratch.ascii.wrap(ascii, offset, length);
+            parse(chars, 0, length, config, scratch);
+            return scratch.toDateTime(config);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Interpret milliseconds since epoch from a range of characters, without creating a
+     * DateTime. ISO-8601 dates are parsed without allocating anything at all; other layouts
+     * are copied once into a String for the heuristics. Whitespace around the date is ignored.
+     *
+     * @param str    Characters holding the date.
+     * @param start  Position of the first character of the date.
+     * @param end    Position just past the last character of the date.
+     * @param config Configuration parameters governing parsing.
+     * @return Milliseconds since epoch interpreted from the range.
+     * @throws IndexOutOfBoundsException if the range does not lie within str.
+     */
+    public static long parseToMillis(CharSequence str, int start, int end, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        checkRange(str, start, end);
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            parse(str, start, end, config, scratch);
+            return scratch.millis;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Interpret milliseconds since epoch from ASCII text in a byte array, without creating a
+     * DateTime. ISO-8601 dates are parsed without allocating anything at all; other layouts
+     * are decoded once into a String for the heuristics. Whitespace around the date is ignored.
+     *
+     * @param ascii  Characters encoded one per byte.
+     * @param offset Position of the first byte of the date.
+     * @param length Number of bytes in the date.
+     * @param config Configuration parameters governing parsing.
+     * @return Milliseconds since epoch interpreted from the bytes.
+     * @throws IndexOutOfBoundsException if the range does not lie within the array.
+     */
+    public static long parseToMillis(byte[] ascii, int offset, int length, IDateTimeConfig config) {
+        if (config == null) {
+            config = DateTimeConfig.getGlobalDefault();
+        }
+        ParseScratch scratch = ParseScratch.acquire();
+        try {
+            AsciiSequence chars = scratch.ascii.wrap(ascii, offset, length);
+            parse(chars, 0, length, config, scratch);
+            return scratch.millis;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    private static void checkRange(CharSequence str, int start, int end) {
+        if (start < 0 || end > str.length() || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " of " + str.length()
+                    + " characters.");
+        }
+    }
+
+    /**
+     * Interpret a date into the millis and nanos of the scratch state, trying the ISO-8601
+     * layouts before the heuristics.
+     *
+     * @param str     Date/Time string to be parsed.
+     * @param config  Configuration parameters governing parsing.
+     * @param scratch Working state, receiving the parsed instant.
+     */
+    private static void parse(CharSequence str, IDateTimeConfig config, ParseScratch scratch) {
+        parse(str, 0, str.length(), config, scratch);
+    }
+
+    /**
+     * Interpret a date from a range of characters into the millis and nanos of the scratch
+     * state, trying the ISO-8601 layouts before the heuristics. Only the heuristics need the
+     * range as a String.
+     *
+     * @param str     Characters holding the date.
+     * @param start   Position of the first character of the date.
+     * @param end     Position just past the last character of the date.
+     * @param config  Configuration parameters governing parsing.
+     * @param scratch Working state, receiving the parsed instant.
+     */
+    static void parse(CharSequence str, int start, int end, IDateTimeConfig config, ParseScratch scratch) {
+        // Trim as String.trim would, but in place.
+        while (start < end && str.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        // Most dates arrive as ISO-8601, which is recognized without the heuristics below.
+        if (!IsoDateTimeParser.parse(str, start, end, config, scratch)) {
+            parseHeuristic(str.subSequence(start, end).toString(), config, scratch);
+        }
+    }
+
+    /**
+     * Interpret a DateTime from a String of any supported layout, weighing each part of the
+     * string to determine what it represents.
+     *
+     * @param str    Date/Time string to be parsed.
+     * @param config Configuration parameters governing parsing and presentation.
+     * @return New DateTime interpreted from string according to alternate rules.
+     */
+    static DateTime parseHeuristic(String str, IDateTimeConfig config) {
+        ParseScratch scratch = new ParseScratch();
+        parseHeuristic(str, config, scratch);
+        return scratch.toDateTime(config);
+    }
+
+    /**
+     * Interpret a date string of any supported layout into the millis and nanos of the
+     * scratch state.
+     *
+     * @param str     Date/Time string to be parsed.
+     * @param config  Configuration parameters governing parsing.
+     * @param scratch Working state, receiving the parsed instant.
+     */
+    private static void parseHeuristic(String str, IDateTimeConfig config, ParseScratch scratch) {
+
+        HasDatepart hasDatepart = scratch.hasDatepart;
+        DateState dateState = scratch.dateState;
+        hasDatepart.reset();
+        dateState.reset();
+
         // Normalize the string a bit
         str = str.trim().toUpperCase(config.getLocale());
         if (str.length() == 0) {
             throw new IllegalArgumentException("Cannot parse DateTime from empty string.");
         }
-        if (str.indexOf('T') > 0) {
+        if (str.charAt(0) == '+' || str.charAt(0) == '-') {
             // Replace a T separator with a space separator.
-            str = str.replaceFirst("([0-9])T([0-9])", "$1 $2");
+            str = scratch.lexer.separate(str, false);
+            DateTime relative = parseRelativeDate(str, config);
+            scratch.millis = relative.toMillis();
+            scratch.nanos = relative.getNanos();
+            return;
         }
-        if (str.charAt(0) == '+' || str.charAt(0) == '-') {
-            return parseRelativeDate(str, config);
-        }
-        if (str.matches(".*([0-9][A-Z]|[A-Z][0-9]).*")) {
-            // Expand dates that use number-to-alpha as implied separator
-            // Chars DMY are reserved for day, month, year relative dates
-            str = str.replaceAll("([0-9])(Z|[A-Y]{2})", "$1 $2");
-            str = str.replaceAll("([A-Z]{3})([0-9])", "$1 $2");
-        }
-        String tzString = tzParse(str);
-        if (tzString!=null && tzString.contains(" ")) {
-            tzString=tzString.substring(0, tzString.indexOf(' '));
-        }
-        if ("AM".equals(tzString) || "PM".equals(tzString)) {
-            tzString = null;
-        }
-        if ("BC".equals(tzString) || "BCE".equals(tzString)) {
-            tzString = null;
-            dateState.isBC = true;
-        }
-        if (tzString != null && tzString.endsWith("0")) {
-            if (tzString.matches("[+-][0-9]{2}:[0-9]{2}")) {
-                str = extract(str, tzString);
-                tzString = "GMT" + tzString;
-            } else if (tzString.matches("[+-][0-9]{4}")) {
-                str = extract(str, tzString);
-                tzString = "GMT" + tzString.substring(0, 3) + ":" + tzString.substring(3);
+        // Replace a T separator with a space separator, and expand dates that use
+        // number-to-alpha as implied separator. Chars DMY are reserved for day, month,
+        // year relative dates.
+        str = scratch.lexer.separate(str, true);
+        TimeZone tz = null;
+        int tzStart = tzStart(str);
+        if (tzStart >= 0) {
+            int tzEnd = str.indexOf(' ', tzStart);
+            if (tzEnd < 0) {
+                tzEnd = str.length();
+            }
+            int offset = parseOffset(str, tzStart, tzEnd);
+            if (offset != NO_OFFSET) {
+                if (offset == BAD_OFFSET) {
+                    tz = config.lookupTimeZone("GMT" + str.substring(tzStart, tzStart + 3) + ":"
+                            + str.substring(tzEnd - 2, tzEnd));
+                } else {
+                    // Numeric offsets, such as -0800 or +05:30, map straight to a fixed offset zone.
+                    tz = FixedOffsetZones.forSeconds(offset);
+                }
+                str = scratch.lexer.remove(str, tzStart, tzEnd);
+            } else if (!isWord(str, tzStart, tzEnd, "AM") && !isWord(str, tzStart, tzEnd, "PM")) {
+                if (isWord(str, tzStart, tzEnd, "BC") || isWord(str, tzStart, tzEnd, "BCE")) {
+                    dateState.isBC = true;
+                } else {
+                    tz = config.lookupTimeZone(str.substring(tzStart, tzEnd));
+                }
             }
         }
-        TimeZone tz = tzString == null ? config.getInputTimeZone() : config.lookupTimeZone(tzString);
-        Tm tm = new Tm(config.systemTime(), tz);
-        dateState.parts = partsPattern.split(str);
+        if (tz == null) {
+            tz = config.getInputTimeZone();
+        }
+        Tm tm = scratch.tm.set(config.systemTime(), tz);
+        scratch.lexer.split(str);
+        dateState.setParts(scratch.lexer);
         dateState.thisYear = tm.getYear();
         dateState.centuryTurn = dateState.thisYear - (dateState.thisYear % 100);
-        // Build a table describing which fields are integers.
-        dateState.integers = new boolean[dateState.parts.length];
-        dateState.usedint = new boolean[dateState.parts.length];
-        for (int i = 0; i < dateState.parts.length; i++) {
-            if (startsWithDigit(dateState.parts[i])) {
-                dateState.integers[i] = true;
-            }
-        }
         scanForTextualMonth(config, hasDatepart, dateState);
 
         scanForYYYYOrYYYYMMDD(config, hasDatepart, dateState);
@@ -969,17 +1399,18 @@ public class DateTime implements Serializable, Comparable<DateTime> {
             throw new IllegalArgumentException("Invalid zero year parsed.");
         }
         // One more scan for Date.toString() style
-        if (!hasDatepart.year && hasDatepart.month && str.endsWith(" " + dateState.parts[dateState.parts.length - 1])) {
-            if (str.length()>11 && str.substring(0, 11).matches("^([A-Z]{3} ){2}\\d\\d ")) {
-                dateState.year = Integer.parseInt(dateState.parts[dateState.parts.length - 1]);
+        int lastPart = dateState.count - 1;
+        if (!hasDatepart.year && hasDatepart.month && dateState.ends[lastPart] == str.length()
+                && dateState.starts[lastPart] > 0 && str.charAt(dateState.starts[lastPart] - 1) == ' ') {
+            if (DateLexer.isDateToString(str)) {
+                dateState.year = dateState.digits(lastPart, 0, dateState.length(lastPart));
                 hasDatepart.year = true;
-                dateState.usedint[dateState.usedint.length - 1] = true;
+                dateState.usedint[dateState.count - 1] = true;
             }
         }
         if (!hasDatepart.year) {
-            /* Remove time and alpha */
-            String masked = str.replaceAll("[0-9]+:[0-9:]+|[a-zA-Z]+", "");
-            if (masked.matches("^\\s*[0-9]+\\s*$")) {
+            /* Ignoring time and alpha, is a lone number left? */
+            if (DateLexer.isLoneNumber(str)) {
                 /* No year given. We'll use this year and test for Dec/Jan at end. */
                 dateState.year = dateState.thisYear;
                 hasDatepart.year = true;
@@ -992,18 +1423,17 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         if (dateState.isBC && dateState.year >= 0) {
             dateState.year = -dateState.year + 1;
         }
-        DateTime returnDt = new DateTime(Tm.calcTime(dateState.year, 1 + dateState.month, dateState.day, dateState.hour, dateState.minute, dateState.second, dateState.nanosecond / 1000000, tz),
-                config);
+        long millis = Tm.calcTime(dateState.year, 1 + dateState.month, dateState.day, dateState.hour, dateState.minute, dateState.second, dateState.nanosecond / 1000000, tz);
 
         if (dateState.isTwoDigitYear && config.isUnspecifiedCenturyAlwaysInPast()) {
+            DateTime returnDt = new DateTime(millis, config);
             if (returnDt.getSeconds() * 1000 > config.systemTime()) {
-                returnDt = returnDt.shift(CalendarUnit.CENTURY, -1);
+                millis = returnDt.shift(CalendarUnit.CENTURY, -1).toMillis();
             }
         }
 
-
-        returnDt.systemDur.nanos = dateState.nanosecond;
-        return returnDt;
+        scratch.millis = millis;
+        scratch.nanos = dateState.nanosecond;
     }
 
     /**
@@ -1042,7 +1472,8 @@ public class DateTime implements Serializable, Comparable<DateTime> {
             return new DateTime(this.systemDur.millis, config);
         }
         // Shift to same time of day at Rose line
-        long calcTime = this.systemDur.millis + config().getOutputTimeZone().getOffset(this.systemDur.millis);
+        ZoneOffsets offsets = ZoneOffsets.of(config().getOutputTimeZone());
+        long calcTime = this.systemDur.millis + offsets.getOffset(this.systemDur.millis);
         // Truncate and shift back to local time
         if (unit == CalendarUnit.HOUR) {
             trim = calcTime % Duration.HOUR;
@@ -1050,7 +1481,7 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                 trim += Duration.HOUR;
             }
             calcTime -= trim;
-            calcTime -= config().getOutputTimeZone().getOffset(calcTime);
+            calcTime -= offsets.getOffset(calcTime);
             return new DateTime(calcTime, config());
         }
         if (unit == CalendarUnit.DAY) {
@@ -1059,13 +1490,13 @@ public class DateTime implements Serializable, Comparable<DateTime> {
                 trim += Duration.DAY;
             }
             calcTime -= trim;
-            calcTime -= config().getOutputTimeZone().getOffset(calcTime);
+            calcTime -= offsets.getOffset(calcTime);
             return new DateTime(calcTime, config());
         }
         if (unit == CalendarUnit.WEEK) {
             long dow = ((calcTime / Duration.DAY) + config().getEpochDOW()) % 7;
             calcTime -= (calcTime % Duration.DAY + Duration.DAY * dow);
-            calcTime -= config().getOutputTimeZone().getOffset(calcTime);
+            calcTime -= offsets.getOffset(calcTime);
             return new DateTime(calcTime, config());
         }
         Tm tm = new Tm(this.systemDur.millis, config().getOutputTimeZone());
@@ -1166,14 +1597,13 @@ public class DateTime implements Serializable, Comparable<DateTime> {
      * @param str String to parse date/time
      * @return first integer greedily matched from a string
      */
-    private static int parseIntFragment(String str) {
+    private static int parseIntFragment(String str, int start, int end) {
         if (str == null) {
             return 0;
         }
         int parsed = 0;
         boolean isNeg = false;
-        char[] strip = str.toCharArray();
-        char c = strip[0];
+        char c = str.charAt(start);
         if (c == '-') {
             isNeg = true;
         } else if (c >= '0' && c <= '9') {
@@ -1181,8 +1611,8 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         } else {
             return 0;
         }
-        for (int i = 1; i < strip.length; i++) {
-            c = strip[i];
+        for (int i = start + 1; i < end; i++) {
+            c = str.charAt(i);
             if (c >= '0' && c <= '9') {
                 parsed = 10 * parsed + c - '0';
             } else {
@@ -1192,20 +1622,6 @@ public class DateTime implements Serializable, Comparable<DateTime> {
         return isNeg ? -parsed : parsed;
     }
 
-    /**
-     * True if a string starts with a digit.
-     *
-     * @param s string
-     * @return true if string starts with a digit.
-     */
-    private static boolean startsWithDigit(String s) {
-        if (s == null || s.length() == 0) {
-            return false;
-        }
-        char c = s.charAt(0);
-        return (c >= '0' && c <= '9');
-    }
-
     /**
      * True if a string has only digits in it.
      *
@@ -0,0 +1,337 @@
+package org.pojava.datetime;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * DateTimeBatchParser converts a large array or list of date strings into epoch milliseconds,
+ * splitting the work across the threads of a ForkJoinPool. Results are written in order into
+ * a long[], and each worker thread parses with its own working state.
+ * <p>
+ * Every date of a batch is interpreted against one snapshot of the config, taken as the batch
+ * begins, so that its settings, its month names and its notion of the current year cannot
+ * shift part way through.
+ * </p>
+ * <pre>
+ * DateTimeBatchParser batch = new DateTimeBatchParser(config, 16);
+ * long[] millis = batch.parseToMillis(dates);
+ * </pre>
+ *
+ * @author John Pile
+ */
+public class DateTimeBatchParser {
+
+    /**
+     * Fewest dates worth handing to a thread of their own. A multiple of 64, so that no two
+     * tasks share a word of the error bitmap.
+     */
+    private static final int MIN_SLICE = 1024;
+
+    private final IDateTimeConfig config;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    /**
+     * Parse across as many threads as there are processors.
+     *
+     * @param config Configuration parameters governing parsing
+     */
+    public DateTimeBatchParser(IDateTimeConfig config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Parse across a pool of its own, which shutdown releases.
+     *
+     * @param config      Configuration parameters governing parsing
+     * @param parallelism Number of threads
+     */
+    public DateTimeBatchParser(IDateTimeConfig config, int parallelism) {
+        this(config, new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Parse across the threads of an existing pool.
+     *
+     * @param config Configuration parameters governing parsing
+     * @param pool   Pool executing the work
+     */
+    public DateTimeBatchParser(IDateTimeConfig config, ForkJoinPool pool) {
+        this(config, pool, false);
+    }
+
+    private DateTimeBatchParser(IDateTimeConfig config, ForkJoinPool pool, boolean ownsPool) {
+        this.config = config == null ? DateTimeConfig.getGlobalDefault() : config;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Parse every date of an array.
+     *
+     * @param dates Date strings
+     * @return Milliseconds since epoch of each date, in order
+     * @throws IllegalArgumentException naming the first date that cannot be parsed
+     */
+    public long[] parseToMillis(CharSequence[] dates) {
+        return parseToMillis(Arrays.asList(dates));
+    }
+
+    /**
+     * Parse every date of a list.
+     *
+     * @param dates Date strings
+     * @return Milliseconds since epoch of each date, in order
+     * @throws IllegalArgumentException naming the first date that cannot be parsed
+     */
+    public long[] parseToMillis(List<? extends CharSequence> dates) {
+        long[] millis = new long[dates.size()];
+        long[] errors = new long[(millis.length + 63) >>> 6];
+        IDateTimeConfig snapshot = parseInto(dates, millis, errors);
+        for (int word = 0; word < errors.length; word++) {
+            if (errors[word] != 0) {
+                int index = word * 64 + Long.numberOfTrailingZeros(errors[word]);
+                CharSequence date = dates.get(index);
+                if (date == null) {
+                    throw new IllegalArgumentException("Null date at index " + index + ".");
+                }
+                try {
+                    // Parse it again, here, to recover the reason.
+                    DateTime.parseToMillis(date, snapshot);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Could not parse date at index " + index + ": "
+                            + ex.getMessage(), ex);
+                }
+                throw new IllegalArgumentException("Could not parse date at index " + index + ".");
+            }
+        }
+        return millis;
+    }
+
+    /**
+     * Parse every date of a list, marking each one that cannot be parsed rather than failing.
+     * A null date is counted as an error.
+     *
+     * @param dates  Date strings
+     * @param millis Receives milliseconds since epoch of each date, or zero for an error
+     * @param errors Error bitmap, in which bit (i &amp; 63) of word (i &gt;&gt; 6) is set if
+     *               date i could not be parsed, and cleared otherwise
+     * @return Number of dates that could not be parsed
+     */
+    public int parseToMillis(List<? extends CharSequence> dates, long[] millis, long[] errors) {
+        if (millis.length < dates.size() || errors.length < (dates.size() + 63) >>> 6) {
+            throw new IllegalArgumentException("Result arrays are too small for " + dates.size() + " dates.");
+        }
+        parseInto(dates, millis, errors);
+        int count = 0;
+        for (int word = 0; word < (dates.size() + 63) >>> 6; word++) {
+            count += Long.bitCount(errors[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Parse the batch against a new snapshot of the config.
+     *
+     * @return The snapshot
+     */
+    private IDateTimeConfig parseInto(List<? extends CharSequence> dates, long[] millis, long[] errors) {
+        IDateTimeConfig snapshot = new Snapshot(config);
+        if (!(dates instanceof RandomAccess)) {
+            dates = Arrays.asList(dates.toArray(new CharSequence[dates.size()]));
+        }
+        Arrays.fill(errors, 0, (dates.size() + 63) >>> 6, 0L);
+        // Several slices per thread, so that threads finishing early can steal work.
+        int slice = Math.max(MIN_SLICE, (dates.size() / (pool.getParallelism() * 8) + 63) & ~63);
+        pool.invoke(new Slice(dates, millis, errors, snapshot, slice, 0, dates.size()));
+        return snapshot;
+    }
+
+    /**
+     * Stop the pool if this parser created it.
+     */
+    public void shutdown() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A range of the batch, split in two until it is small enough to parse on one thread.
+     */
+    private static final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> dates;
+        private final long[] millis;
+        private final long[] errors;
+        private final IDateTimeConfig config;
+        private final int slice;
+        private final int from;
+        private final int to;
+
+        private Slice(List<? extends CharSequence> dates, long[] millis, long[] errors, IDateTimeConfig config,
+                      int slice, int from, int to) {
+            this.dates = dates;
+            this.millis = millis;
+            this.errors = errors;
+            this.config = config;
+            this.slice = slice;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > slice) {
+                // Split on a multiple of 64, so each half owns whole words of the bitmap.
+                int mid = from + (((to - from) / 2 + 63) & ~63);
+                invokeAll(new Slice(dates, millis, errors, config, slice, from, mid),
+                        new Slice(dates, millis, errors, config, slice, mid, to));
+                return;
+            }
+            DateTime.ParseScratch scratch = DateTime.ParseScratch.acquire();
+            try {
+                for (int i = from; i < to; i++) {
+                    CharSequence date = dates.get(i);
+                    millis[i] = 0;
+                    if (date == null) {
+                        errors[i >>> 6] |= 1L << i;
+                        continue;
+                    }
+                    try {
+                        DateTime.parse(date, 0, date.length(), config, scratch);
+                        millis[i] = scratch.millis;
+                    } catch (RuntimeException ex) {
+                        // Any failure to interpret the date marks it in error.
+                        errors[i >>> 6] |= 1L << i;
+                    }
+                }
+            } finally {
+                scratch.release();
+            }
+        }
+    }
+
+    /**
+     * The config as it stood when a batch began. Every setting is copied, along with the month
+     * names of a DateTimeConfig, whose MonthMap can still be added to. Time zones are looked up
+     * through the original config, which for a DateTimeConfig only ever resolves an id one way.
+     */
+    private static final class Snapshot implements IDateTimeConfig {
+        private final IDateTimeConfig config;
+        private final boolean isDmyOrder;
+        private final boolean isUnspecifiedCenturyAlwaysInPast;
+        private final int epochDOW;
+        private final String format;
+        private final String bcPrefix;
+        private final Locale locale;
+        private final TimeZone inputTimeZone;
+        private final TimeZone outputTimeZone;
+        private final Map<String, String> tzMap;
+        private final MonthMap monthMap;
+        private final long systemTime;
+
+        private Snapshot(IDateTimeConfig config) {
+            this.config = config;
+            this.isDmyOrder = config.isDmyOrder();
+            this.isUnspecifiedCenturyAlwaysInPast = config.isUnspecifiedCenturyAlwaysInPast();
+            this.epochDOW = config.getEpochDOW();
+            this.format = config.getFormat();
+            this.bcPrefix = config.getBcPrefix();
+            this.locale = config.getLocale();
+            this.inputTimeZone = config.getInputTimeZone();
+            this.outputTimeZone = config.getOutputTimeZone();
+            this.tzMap = Collections.unmodifiableMap(new HashMap<String, String>(config.getTzMap()));
+            this.monthMap = config instanceof DateTimeConfig ? ((DateTimeConfig) config).copyMonthMap() : null;
+            this.systemTime = config.systemTime();
+        }
+
+        @Override
+        public boolean isDmyOrder() {
+            return isDmyOrder;
+        }
+
+        @Override
+        public Map<String, String> getTzMap() {
+            return tzMap;
+        }
+
+        @Override
+        public TimeZone getInputTimeZone() {
+            return inputTimeZone;
+        }
+
+        @Override
+        public TimeZone getOutputTimeZone() {
+            return outputTimeZone;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return locale;
+        }
+
+        @Override
+        public String getFormat() {
+            return format;
+        }
+
+        @Override
+        public String getBcPrefix() {
+            return bcPrefix;
+        }
+
+        @Override
+        public int getEpochDOW() {
+            return epochDOW;
+        }
+
+        @Override
+        public TimeZone lookupTimeZone(String id) {
+            return config.lookupTimeZone(id, inputTimeZone);
+        }
+
+        @Override
+        public TimeZone lookupTimeZone(String id, TimeZone defaultTimeZone) {
+            return config.lookupTimeZone(id, defaultTimeZone);
+        }
+
+        @Override
+        public Integer lookupMonthIndex(String monthNameOrAbbreviation) {
+            return monthMap == null ? config.lookupMonthIndex(monthNameOrAbbreviation)
+                    : monthMap.monthIndex(monthNameOrAbbreviation);
+        }
+
+        @Override
+        public Integer lookupMonthIndex(CharSequence chars, int start, int end) {
+            return monthMap == null ? config.lookupMonthIndex(chars, start, end)
+                    : monthMap.monthIndex(chars, start, end);
+        }
+
+        @Override
+        public boolean isUnspecifiedCenturyAlwaysInPast() {
+            return isUnspecifiedCenturyAlwaysInPast;
+        }
+
+        @Override
+        public long systemTime() {
+            return systemTime;
+        }
+
+        @Override
+        public void validate() {
+            if (inputTimeZone == null || outputTimeZone == null) {
+                throw new IllegalStateException("TimeZones must be non-null.");
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package org.pojava.datetime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * DateTimeBulkParser converts a column of dates in a delimited text file, such as a log or a
+ * CSV file, into epoch milliseconds and nanoseconds. It reads the file in large blocks and
+ * parses each date in place from the bytes, reusing the same working state for every record,
+ * so that nothing is allocated per record for ISO-8601 dates.
+ * <p>
+ * Every line is a record, including blank lines, so a record number is also a line number.
+ * Fields are separated by a single ASCII delimiter. A field wrapped in double quotes, as in
+ * CSV, may contain the delimiter, and is read without the quotes. The date column is read as
+ * ASCII, one byte per character.
+ * </p>
+ * <p>
+ * Results are delivered in chunks. The same Chunk is filled, handed to the ChunkHandler, and
+ * cleared for the next records, so a handler must copy out whatever it keeps.
+ * </p>
+ * <pre>
+ * DateTimeBulkParser parser = new DateTimeBulkParser(config, ',', 0);
+ * parser.parse(new File("events.csv"), new DateTimeBulkParser.Chunk(8192), handler);
+ * </pre>
+ *
+ * @author John Pile
+ */
+public class DateTimeBulkParser {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Bytes of a file mapped into memory at a time.
+     */
+    private static final long MAP_WINDOW = 1L << 26;
+
+    private final IDateTimeConfig config;
+    private final byte delimiter;
+    private final int column;
+
+    /**
+     * Receives each chunk of results as it fills.
+     */
+    public interface ChunkHandler {
+        /**
+         * @param chunk Results for the next run of records. Its contents are replaced once
+         *              this method returns.
+         * @throws IOException if the results cannot be stored
+         */
+        void handle(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Parsed dates for a run of consecutive records, with a bit set in the error bitmap for
+     * each record whose date could not be parsed.
+     */
+    public static final class Chunk {
+        private final long[] millis;
+        private final int[] nanos;
+        private final long[] errors;
+        private int size;
+        private long firstRecord;
+
+        /**
+         * @param capacity Number of records per chunk
+         */
+        public Chunk(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Chunk capacity must be positive, not " + capacity + ".");
+            }
+            this.millis = new long[capacity];
+            this.nanos = new int[capacity];
+            this.errors = new long[(capacity + 63) >>> 6];
+        }
+
+        /**
+         * @return Maximum number of records held
+         */
+        public int capacity() {
+            return millis.length;
+        }
+
+        /**
+         * @return Number of records held
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return Zero-based number of the record at index 0 of this chunk
+         */
+        public long getFirstRecord() {
+            return firstRecord;
+        }
+
+        /**
+         * @return Milliseconds since epoch for each record, valid up to size(). Zero where
+         *         the record had an error.
+         */
+        public long[] getMillis() {
+            return millis;
+        }
+
+        /**
+         * @return Fraction of the second in nanoseconds for each record, valid up to size()
+         */
+        public int[] getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Error bitmap, in which bit (i &amp; 63) of word (i &gt;&gt; 6) marks index i
+         */
+        public long[] getErrors() {
+            return errors;
+        }
+
+        /**
+         * @param index Index of a record within this chunk
+         * @return True if the date of that record could not be parsed
+         */
+        public boolean isError(int index) {
+            return (errors[index >>> 6] & 1L << index) != 0;
+        }
+
+        /**
+         * @return Number of records in this chunk whose dates could not be parsed
+         */
+        public int errorCount() {
+            int count = 0;
+            for (long word : errors) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        private boolean isFull() {
+            return size == millis.length;
+        }
+
+        private void add(long recordMillis, int recordNanos) {
+            millis[size] = recordMillis;
+            nanos[size] = recordNanos;
+            size++;
+        }
+
+        private void addError() {
+            errors[size >>> 6] |= 1L << size;
+            add(0, 0);
+        }
+
+        private void clear(long nextRecord) {
+            for (int i = 0; i < errors.length; i++) {
+                errors[i] = 0;
+            }
+            size = 0;
+            firstRecord = nextRecord;
+        }
+    }
+
+    /**
+     * @param config    Configuration parameters governing parsing
+     * @param delimiter ASCII character separating fields
+     * @param column    Zero-based index of the field holding the date
+     */
+    public DateTimeBulkParser(IDateTimeConfig config, char delimiter, int column) {
+        if (delimiter > 0x7F || delimiter == '\n') {
+            throw new IllegalArgumentException("Delimiter must be an ASCII character other than line feed.");
+        }
+        if (column < 0) {
+            throw new IllegalArgumentException("Column must not be negative, not " + column + ".");
+        }
+        this.config = config == null ? DateTimeConfig.getGlobalDefault() : config;
+        this.delimiter = (byte) delimiter;
+        this.column = column;
+    }
+
+    /**
+     * Parse the date column of every record read from a channel, which is left open.
+     *
+     * @param channel Source of the records
+     * @param chunk   Chunk to fill and reuse
+     * @param handler Receives each chunk as it fills, and the last partial chunk
+     * @return Number of records read
+     * @throws IOException if the channel or the handler fails
+     */
+    public long parse(ReadableByteChannel channel, Chunk chunk, ChunkHandler handler) throws IOException {
+        Run run = new Run(chunk, handler);
+        ByteBuffer buffer = ByteBuffer.wrap(run.bytes);
+        while (true) {
+            buffer.limit(run.bytes.length).position(run.filled);
+            int count = channel.read(buffer);
+            if (count < 0) {
+                break;
+            }
+            run.filled = buffer.position();
+            run.consumeLines(false);
+            if (run.filled == run.bytes.length) {
+                buffer = ByteBuffer.wrap(run.grow());
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Parse the date column of every record of a file, mapping it into memory a window at a
+     * time.
+     *
+     * @param file    File holding the records
+     * @param chunk   Chunk to fill and reuse
+     * @param handler Receives each chunk as it fills, and the last partial chunk
+     * @return Number of records read
+     * @throws IOException if the file cannot be read or the handler fails
+     */
+    public long parse(File file, Chunk chunk, ChunkHandler handler) throws IOException {
+        Run run = new Run(chunk, handler);
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW, size - position));
+                while (window.hasRemaining()) {
+                    int count = Math.min(window.remaining(), run.bytes.length - run.filled);
+                    window.get(run.bytes, run.filled, count);
+                    run.filled += count;
+                    run.consumeLines(false);
+                    if (run.filled == run.bytes.length) {
+                        run.grow();
+                    }
+                }
+            }
+        } finally {
+            raf.close();
+        }
+        return run.finish();
+    }
+
+    /**
+     * State of one call to parse, so that a single DateTimeBulkParser may serve many threads.
+     */
+    private final class Run {
+        private final Chunk chunk;
+        private final ChunkHandler handler;
+        private final DateTime.ParseScratch scratch = new DateTime.ParseScratch();
+        private final AsciiSequence chars = new AsciiSequence();
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int filled;
+        private long records;
+
+        private Run(Chunk chunk, ChunkHandler handler) {
+            this.chunk = chunk;
+            this.handler = handler;
+            chunk.clear(0);
+        }
+
+        /**
+         * Make room for a line longer than the buffer.
+         *
+         * @return The new buffer
+         */
+        private byte[] grow() {
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, grown, 0, filled);
+            bytes = grown;
+            return grown;
+        }
+
+        /**
+         * Parse every complete line in the buffer, then move any partial line to the front.
+         *
+         * @param atEnd True if no more bytes will follow, completing the last line
+         * @throws IOException if the handler fails
+         */
+        private void consumeLines(boolean atEnd) throws IOException {
+            chars.wrap(bytes, 0, filled);
+            int start = 0;
+            for (int pos = 0; pos < filled; pos++) {
+                if (bytes[pos] == '\n') {
+                    record(start, pos);
+                    start = pos + 1;
+                }
+            }
+            if (atEnd && start < filled) {
+                record(start, filled);
+                start = filled;
+            }
+            System.arraycopy(bytes, start, bytes, 0, filled - start);
+            filled -= start;
+        }
+
+        /**
+         * Parse the date column of one line.
+         *
+         * @param start Position of the first byte of the line
+         * @param end   Position of the line feed, or the end of the last line
+         * @throws IOException if the handler fails
+         */
+        private void record(int start, int end) throws IOException {
+            int fieldStart = start;
+            int fieldEnd = fieldEnd(fieldStart, end);
+            for (int i = 0; i < column && fieldStart <= end; i++) {
+                fieldStart = fieldEnd + 1;
+                fieldEnd = fieldEnd(fieldStart, end);
+            }
+            if (fieldStart > end) {
+                chunk.addError();
+            } else {
+                parseField(fieldStart, fieldEnd);
+            }
+            records++;
+            if (chunk.isFull()) {
+                handler.handle(chunk);
+                chunk.clear(records);
+            }
+        }
+
+        /**
+         * Find the end of a field, passing over any delimiters within double quotes.
+         *
+         * @param pos Position of the first byte of the field
+         * @param end Position of the end of the line
+         * @return Position of the delimiter ending the field, or the end of the line
+         */
+        private int fieldEnd(int pos, int end) {
+            if (pos < end && bytes[pos] == '"') {
+                pos++;
+                while (pos < end) {
+                    if (bytes[pos++] == '"') {
+                        // A doubled quote is a quote character, not the end of the field.
+                        if (pos < end && bytes[pos] == '"') {
+                            pos++;
+                        } else {
+                            break;
+                        }
+                    }
+                }
+            }
+            while (pos < end && bytes[pos] != delimiter) {
+                pos++;
+            }
+            return pos;
+        }
+
+        private void parseField(int start, int end) {
+            // Drop surrounding whitespace and quotes
+            while (start < end && (bytes[start] & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+                end--;
+            }
+            if (end - start >= 2 && bytes[start] == '"' && bytes[end - 1] == '"') {
+                start++;
+                end--;
+            }
+            if (start == end) {
+                chunk.addError();
+                return;
+            }
+            try {
+                DateTime.parse(chars, start, end, config, scratch);
+            } catch (RuntimeException ex) {
+                // Any failure to interpret the field marks the record in error.
+                chunk.addError();
+                return;
+            }
+            chunk.add(scratch.millis, scratch.nanos);
+        }
+
+        /**
+         * Parse the final line, and hand over the last partial chunk.
+         *
+         * @return Number of records read
+         * @throws IOException if the handler fails
+         */
+        private long finish() throws IOException {
+            consumeLines(true);
+            if (chunk.size() > 0) {
+                handler.handle(chunk);
+                chunk.clear(records);
+            }
+            chars.clear();
+            return records;
+        }
+    }
+}
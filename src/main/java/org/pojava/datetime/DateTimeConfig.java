@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Establish global defaults for shaping DateTime behavior. This version supports English,
@@ -42,7 +44,7 @@ public class DateTimeConfig implements IDateTimeConfig, Serializable {
      * Singleton pattern. The globalDefault variable is referenced by DateTime, so changes you
      * make here affect new calls to DateTime.
      */
-    private static IDateTimeConfig globalDefault = null;
+    private static volatile IDateTimeConfig globalDefault = null;
 
     /**
      * This determines the default interpretation of a ##/##/#### date, whether Day precedes
@@ -94,7 +96,18 @@ public class DateTimeConfig implements IDateTimeConfig, Serializable {
      */
     private final Map<String, String> tzMap = new HashMap<String, String>();
 
-    private final Map<String, TimeZone> tzCache = new HashMap<String, TimeZone>();
+    /**
+     * Time zones already resolved, shared by every thread parsing with this config.
+     */
+    private final ConcurrentMap<String, TimeZone> tzCache = new ConcurrentHashMap<String, TimeZone>();
+
+    /**
+     * Ids that TimeZone could not resolve, remembered so they are not looked up again. This is
+     * capped, since the ids come from parsed text.
+     */
+    private final ConcurrentMap<String, Boolean> unresolvedTzIds = new ConcurrentHashMap<String, Boolean>();
+
+    private static final int MAX_UNRESOLVED_TZ_IDS = 1000;
 
 
     /**
@@ -214,26 +227,44 @@ public class DateTimeConfig implements IDateTimeConfig, Serializable {
     }
 
     /**
-     * Lookup the TimeZone, including custom time zones.
+     * Lookup the TimeZone, including custom time zones. Safe to call from many threads at once.
      */
     public TimeZone lookupTimeZone(String id, TimeZone defaultTimeZone) {
-        TimeZone tz;
         if (id == null) {
-            tz = defaultTimeZone;
-        } else if (!tzCache.containsKey(id)) {
-            tz = TimeZone.getTimeZone(id);
-            // TimeZone defaults to GMT if it can't match a parsed timezone.
-            if ("GMT".equals(tz.getID())) {
-                if (!("GMT".equals(id) || "UTC".equals(id) || "CUT".equals(id) || "Z".equals(id) || "WET".equals(id))) {
-                    // If it's GMT due to parse error, we'll default to input time.
-                    return defaultTimeZone;
+            return defaultTimeZone;
+        }
+        TimeZone tz = tzCache.get(id);
+        if (tz != null) {
+            return tz;
+        }
+        // Numeric offsets come from the shared pool, rather than filling the cache.
+        tz = FixedOffsetZones.forId(id);
+        if (tz != null) {
+            return tz;
+        }
+        if (unresolvedTzIds.containsKey(id)) {
+            return defaultTimeZone;
+        }
+        tz = TimeZone.getTimeZone(id);
+        // TimeZone defaults to GMT if it can't match a parsed timezone.
+        if ("GMT".equals(tz.getID())) {
+            if (!("GMT".equals(id) || "UTC".equals(id) || "CUT".equals(id) || "Z".equals(id) || "WET".equals(id))) {
+                // If it's GMT due to parse error, we'll default to input time.
+                if (unresolvedTzIds.size() < MAX_UNRESOLVED_TZ_IDS) {
+                    unresolvedTzIds.put(id, Boolean.TRUE);
                 }
+                return defaultTimeZone;
             }
-            tzCache.put(id, tz);
-        } else {
-            tz = tzCache.get(id);
         }
-        return tz;
+        TimeZone cached = tzCache.putIfAbsent(id, tz);
+        return cached == null ? tz : cached;
+    }
+
+    /**
+     * @return A MonthMap of the month names as they stand, unaffected by months added later
+     */
+    MonthMap copyMonthMap() {
+        return monthMap.copy();
     }
 
     @Override
@@ -241,6 +272,11 @@ public class DateTimeConfig implements IDateTimeConfig, Serializable {
         return monthMap.monthIndex(monthNameOrAbbreviation);
     }
 
+    @Override
+    public Integer lookupMonthIndex(CharSequence chars, int start, int end) {
+        return monthMap.monthIndex(chars, start, end);
+    }
+
     /**
      * @return Input TimeZone default for parser.
      */
@@ -1,10 +1,15 @@
 package org.pojava.datetime;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.text.DateFormatSymbols;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /*
  Copyright 2010 John Pile
@@ -31,11 +36,11 @@ import java.util.TimeZone;
  * represents "BC" or "AD", but I added a lower-cased "g" to the format to use "BCE" or "CE".
  * While "Z" still shows time zone offset as "-HHmm", "ZZ" will add a colon, as "-HH:mm".
  * <p/>
- * Because it does not "compile" the format String, DateTimeFormat can provide a static method
- * with the same performance as a constructed object. It does allow a constructed object for
- * similar behavior to existing formatters, but there is no performance advantage in doing so.
- * In either case, this class is thread-safe, provided your application is not trying to
- * change the internals of Java's TimeZone object as you're using it.
+ * The template is compiled once into a fixed list of fields and literal segments, so a
+ * constructed object (see {@link #compile(String)}) formats without re-reading the template.
+ * The static methods compile the template on every call, and are best reserved for one-off
+ * formatting. In either case, this class is thread-safe, provided your application is not
+ * trying to change the internals of Java's TimeZone object as you're using it.
  * <p/>
  * It is important to understand that the default behavior is to format the output according to
  * the system's time zone. If you want to format the output according to the DateTime object's
@@ -56,14 +61,84 @@ public class DateTimeFormat {
      * CE is Common Era, Current Era, or Christian Era, a.k.a. AD.
      */
     private static final int[] dom = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365};
-    private static Map<Locale, DateFormatSymbols> symbols = new HashMap<Locale, DateFormatSymbols>();
+    /**
+     * Month, weekday and AM/PM names per Locale, shared by every thread.
+     */
+    private static final ConcurrentMap<Locale, Symbols> symbols = new ConcurrentHashMap<Locale, Symbols>();
+    /**
+     * Characters that represent a field when they appear outside of quotes.
+     */
+    private static final String FIELD_SYMBOLS = "gGyMDdEaHkKhmsSzZFwW";
+    /**
+     * Symbol of a compiled field holding literal text.
+     */
+    private static final char LITERAL = '\0';
     private final String template;
 
+    /**
+     * The template compiled into an ordered list of fields and literal segments.
+     */
+    private final Field[] fields;
+
+    /**
+     * The BC prefix is only applied to a year when the template holds no era (g or G).
+     */
+    private final boolean hasEra;
+
+    /**
+     * Only templates with month names, weekday names or AM/PM need the Locale's symbols.
+     */
+    private final boolean needsSymbols;
+
+    /**
+     * Typical length of the output, used to size the output buffer up front.
+     */
+    private final int estimatedLength;
+
     /**
      * @param template Format specifier
      */
     public DateTimeFormat(String template) {
         this.template = template;
+        this.fields = compileFields(template);
+        this.hasEra = template.indexOf('g') >= 0 || template.indexOf('G') >= 0;
+        int length = 0;
+        boolean textual = false;
+        for (Field field : fields) {
+            length += field.estimatedLength();
+            textual |= field.symbol == 'E' || field.symbol == 'a' || field.symbol == 'M' && field.length >= 3;
+        }
+        this.estimatedLength = length;
+        this.needsSymbols = textual;
+    }
+
+    /**
+     * Compile a template into a reusable, thread-safe formatter.
+     *
+     * @param template Format specifier
+     * @return A formatter that no longer needs to parse its template.
+     */
+    public static DateTimeFormat compile(String template) {
+        return new DateTimeFormat(template);
+    }
+
+    /**
+     * Load the month, weekday and AM/PM names of each Locale ahead of time, so that the first
+     * format in those languages does not pay to look them up.
+     *
+     * @param locales Locales expected to be formatted
+     */
+    public static void preloadSymbols(Locale... locales) {
+        for (Locale locale : locales) {
+            Symbols.forLocale(locale);
+        }
+    }
+
+    /**
+     * @return The template from which this formatter was compiled.
+     */
+    public String getTemplate() {
+        return template;
     }
 
     /**
@@ -71,7 +146,7 @@ public class DateTimeFormat {
      * @return Formatted output
      */
     public String format(DateTime dt) {
-        return format(this.template, dt);
+        return format(dt, dt.config().getOutputTimeZone(), dt.config().getLocale());
     }
 
     /**
@@ -79,7 +154,167 @@ public class DateTimeFormat {
      * @return Formatted output
      */
     public String format(long millis) {
-        return format(this.template, new DateTime(millis));
+        return format(new DateTime(millis));
+    }
+
+    /**
+     * @param dt Format the given DateTime value to a String
+     * @param tz TimeZone for which the output is displayed
+     * @return Formatted output
+     */
+    public String format(DateTime dt, TimeZone tz) {
+        return format(dt, tz, dt.config().getLocale());
+    }
+
+    /**
+     * @param dt     Format the given DateTime value to a String
+     * @param tz     TimeZone for which the output is displayed
+     * @param locale Locale governing language of non-numeric output
+     * @return Formatted output
+     */
+    public String format(DateTime dt, TimeZone tz, Locale locale) {
+        Output out = Output.acquire(estimatedLength);
+        try {
+            render(out, dt, tz, locale);
+            return new String(out.chars, 0, out.length);
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * Format a DateTime onto the end of an Appendable, such as a StringBuilder or a Writer.
+     * Numeric fields are written digit by digit, so no intermediate Strings are created.
+     *
+     * @param dt  Format the given DateTime value
+     * @param out Destination of the formatted output
+     * @return The same Appendable, for chaining
+     * @throws IOException if the Appendable fails
+     */
+    public Appendable formatTo(DateTime dt, Appendable out) throws IOException {
+        Output output = Output.acquire(estimatedLength);
+        try {
+            render(output, dt, dt.config().getOutputTimeZone(), dt.config().getLocale());
+            if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(output.chars, 0, output.length);
+            } else {
+                for (int i = 0; i < output.length; i++) {
+                    out.append(output.chars[i]);
+                }
+            }
+        } finally {
+            output.release();
+        }
+        return out;
+    }
+
+    /**
+     * Format a DateTime into a caller-supplied character array.
+     *
+     * @param dt     Format the given DateTime value
+     * @param buf    Destination of the formatted output
+     * @param offset Position in buf of the first character written
+     * @return Number of characters written
+     * @throws IndexOutOfBoundsException if the output does not fit in buf from offset
+     */
+    public int formatTo(DateTime dt, char[] buf, int offset) {
+        Output output = Output.acquire(estimatedLength);
+        try {
+            render(output, dt, dt.config().getOutputTimeZone(), dt.config().getLocale());
+            if (offset < 0 || offset + output.length > buf.length) {
+                throw new IndexOutOfBoundsException("Formatted output needs " + output.length
+                        + " characters at offset " + offset + " of a " + buf.length + " character array.");
+            }
+            System.arraycopy(output.chars, 0, buf, offset, output.length);
+            return output.length;
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * Format a DateTime into a ByteBuffer at its current position. ASCII output is copied a
+     * byte per character; anything else is encoded as UTF-8.
+     *
+     * @param dt  Format the given DateTime value
+     * @param out Destination of the formatted output
+     * @return Number of bytes written
+     * @throws BufferOverflowException if the output does not fit in the remaining buffer
+     */
+    public int formatTo(DateTime dt, ByteBuffer out) {
+        Output output = Output.acquire(estimatedLength);
+        try {
+            render(output, dt, dt.config().getOutputTimeZone(), dt.config().getLocale());
+            char[] chars = output.chars;
+            int length = output.length;
+            int size = 0;
+            for (int i = 0; i < length; i++) {
+                char c = chars[i];
+                if (c < 0x80) {
+                    size++;
+                } else if (c < 0x800) {
+                    size += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                    size += 4;
+                    i++;
+                } else {
+                    size += 3;
+                }
+            }
+            if (size > out.remaining()) {
+                throw new BufferOverflowException();
+            }
+            if (size == length) {
+                // ASCII only
+                for (int i = 0; i < length; i++) {
+                    out.put((byte) chars[i]);
+                }
+                return size;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = chars[i];
+                if (c < 0x80) {
+                    out.put((byte) c);
+                } else if (c < 0x800) {
+                    out.put((byte) (0xC0 | c >> 6));
+                    out.put((byte) (0x80 | c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                    int cp = Character.toCodePoint(c, chars[++i]);
+                    out.put((byte) (0xF0 | cp >> 18));
+                    out.put((byte) (0x80 | cp >> 12 & 0x3F));
+                    out.put((byte) (0x80 | cp >> 6 & 0x3F));
+                    out.put((byte) (0x80 | cp & 0x3F));
+                } else {
+                    out.put((byte) (0xE0 | c >> 12));
+                    out.put((byte) (0x80 | c >> 6 & 0x3F));
+                    out.put((byte) (0x80 | c & 0x3F));
+                }
+            }
+            return size;
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * Write every compiled field of the template to the output.
+     *
+     * @param out    Output buffer
+     * @param dt     DateTime to format
+     * @param tz     TimeZone for which the output is displayed
+     * @param locale Locale governing language of non-numeric output
+     */
+    private void render(Output out, DateTime dt, TimeZone tz, Locale locale) {
+        Tm tm = out.tm.set(dt, tz);
+        Symbols names = needsSymbols ? Symbols.forLocale(locale) : null;
+        String bcPrefix = hasEra ? "" : dt.config().getBcPrefix();
+        for (Field field : fields) {
+            if (field.symbol == LITERAL) {
+                out.append(field.literal);
+            } else {
+                appendField(out, field.symbol, field.length, tm, dt, tz, locale, names, bcPrefix);
+            }
+        }
     }
 
     /**
@@ -118,213 +353,202 @@ public class DateTimeFormat {
      * @return Formatted output
      */
     public static String format(String template, DateTime dt, TimeZone tz, Locale locale) {
-        Tm tm = new Tm(dt, tz);
-        StringBuilder sb = new StringBuilder();
+        return new DateTimeFormat(template).format(dt, tz, locale);
+    }
+
+    /**
+     * Split a template into fields and literal segments. Runs of a repeated character form a
+     * single field, text between single quotes is literal, and two consecutive single quotes
+     * produce a single quote.
+     *
+     * @param template Format specifier
+     * @return Fields in output order
+     */
+    private static Field[] compileFields(String template) {
+        if (template.length() == 0) {
+            return new Field[0];
+        }
+        List<Field> compiled = new ArrayList<Field>();
+        StringBuilder literal = new StringBuilder();
         StringBuilder word = new StringBuilder();
         char[] fmt = template.toCharArray();
         char prior = fmt[0];
         if (prior != '\'') {
             word.append(prior);
         }
-        if (!symbols.containsKey(locale)) {
-            symbols.put(locale, new DateFormatSymbols(locale));
-        }
-        DateFormatSymbols dfs = symbols.get(locale);
-        String bcPrefix = (template.indexOf('g') < 0 && template.indexOf('G') < 0) ? dt.config().getBcPrefix() : "";
         boolean isLiteral = (prior == '\'');
         for (int i = 1; i < fmt.length; i++) {
             if (fmt[i] == '\'') {
                 if (prior == '\'') {
-                    sb.append('\'');
+                    literal.append('\'');
                 } else {
-                    appendWord(sb, word, tm, dt, tz, locale, dfs, bcPrefix);
+                    compileWord(compiled, literal, word);
                 }
                 word.setLength(0);
                 prior = prior == '\'' ? ' ' : '\'';
                 isLiteral = !isLiteral;
             } else if (isLiteral) {
-                sb.append(fmt[i]);
+                literal.append(fmt[i]);
                 prior = fmt[i];
             } else if (fmt[i] == prior) {
                 word.append(prior);
             } else {
-                appendWord(sb, word, tm, dt, tz, locale, dfs, bcPrefix);
+                compileWord(compiled, literal, word);
                 prior = fmt[i];
                 word.setLength(0);
                 word.append(prior);
             }
         }
-        appendWord(sb, word, tm, dt, tz, locale, dfs, bcPrefix);
-        return sb.toString();
+        compileWord(compiled, literal, word);
+        if (literal.length() > 0) {
+            compiled.add(new Field(literal.toString()));
+        }
+        return compiled.toArray(new Field[compiled.size()]);
     }
 
     /**
-     * @param sb     Whole output string
-     * @param word   Individual word being added
-     * @param tm
-     * @param dt     DateTime
-     * @param tz     TimeZone
-     * @param locale Locale
-     * @param dfs    DateFormatSymbols
+     * Add a word to the compiled template, either as a field or as part of a literal segment.
+     *
+     * @param compiled Fields compiled so far
+     * @param literal  Literal text not yet added to the compiled fields
+     * @param word     Run of a single repeated character
      */
-    private static void appendWord(StringBuilder sb, StringBuilder word, Tm tm, DateTime dt, TimeZone tz, Locale locale, DateFormatSymbols dfs, String appendBC) {
+    private static void compileWord(List<Field> compiled, StringBuilder literal, StringBuilder word) {
         if (word.length() == 0) {
             return;
         }
         char c = word.charAt(0);
-        int len = word.length();
+        if (FIELD_SYMBOLS.indexOf(c) < 0) {
+            literal.append(word);
+            return;
+        }
+        if (literal.length() > 0) {
+            compiled.add(new Field(literal.toString()));
+            literal.setLength(0);
+        }
+        compiled.add(new Field(c, word.length()));
+    }
+
+    /**
+     * @param out      Whole output string
+     * @param c        Field symbol
+     * @param len      Number of times the symbol is repeated
+     * @param tm       Date parts of dt
+     * @param dt       DateTime
+     * @param tz       TimeZone
+     * @param locale   Locale
+     * @param names    Month, weekday and AM/PM names of the Locale
+     * @param appendBC Prefix for a BC year
+     */
+    private static void appendField(Output out, char c, int len, Tm tm, DateTime dt, TimeZone tz, Locale locale, Symbols names, String appendBC) {
         switch (c) {
             case 'g':
-                sb.append(tm.getYear() < 0 ? "BCE" : "CE");
+                out.append(tm.getYear() < 0 ? "BCE" : "CE");
                 break;
             case 'G':
-                sb.append(tm.getYear() < 0 ? "BC" : "AD");
+                out.append(tm.getYear() < 0 ? "BC" : "AD");
                 break;
             case 'y':
                 if (tm.getYear() < 0) {
-                    sb.append(appendBC);
+                    out.append(appendBC);
                 }
                 if (len < 3) {
-                    sb.append(zfill(tm.getYear() % 100, 2));
+                    out.appendNumber(tm.getYear() % 100, 2);
                 } else if (len == 3) {
-                    sb.append(zfill(tm.getYear() % 1000, 3));
+                    out.appendNumber(tm.getYear() % 1000, 3);
                 } else {
-                    sb.append(zfill(tm.getYear(), len));
+                    out.appendNumber(tm.getYear(), len);
                 }
                 break;
             case 'M':
                 if (len > 3) {
-                    sb.append(dfs.getMonths()[tm.getMonth() - 1]);
+                    out.append(names.months[tm.getMonth() - 1]);
                 } else if (len == 3) {
-                    sb.append(dfs.getShortMonths()[tm.getMonth() - 1]);
-                } else if (len == 2) {
-                    sb.append(zfill(tm.getMonth(), 2));
+                    out.append(names.shortMonths[tm.getMonth() - 1]);
                 } else {
-                    sb.append(tm.getMonth());
+                    out.appendNumber(tm.getMonth(), len);
                 }
                 break;
             case 'D': // Day in Year
-                if (len > 1) {
-                    sb.append(zfill(dom[tm.getMonth() - 1] + tm.getDay() + leapDays(tm), len));
-                } else {
-                    sb.append(dom[tm.getMonth() - 1] + tm.getDay() + leapDays(tm));
-                }
+                out.appendNumber(dom[tm.getMonth() - 1] + tm.getDay() + leapDays(tm), len);
                 break;
             case 'd': // Day in Month
-                if (len > 1) {
-                    sb.append(zfill(tm.getDay(), len));
-                } else {
-                    sb.append(tm.getDay());
-                }
+                out.appendNumber(tm.getDay(), len);
                 break;
             case 'E': //
                 if (len > 3) {
-                    sb.append(dfs.getWeekdays()[tm.getWeekday()]);
+                    out.append(names.weekdays[tm.getWeekday()]);
                 } else {
-                    sb.append(dfs.getShortWeekdays()[tm.getWeekday()]);
+                    out.append(names.shortWeekdays[tm.getWeekday()]);
                 }
                 break;
             case 'a':
-                sb.append(dfs.getAmPmStrings()[tm.getHour() > 11 ? 1 : 0]);
+                out.append(names.amPm[tm.getHour() > 11 ? 1 : 0]);
                 break;
             case 'H':
-                if (len > 1) {
-                    sb.append(zfill(tm.getHour(), len));
-                } else {
-                    sb.append(tm.getHour());
-                }
+                out.appendNumber(tm.getHour(), len);
                 break;
             case 'k':
-                int hr_k = tm.getHour() == 0 ? 24 : tm.getHour();
-                sb.append(len > 1 ? zfill(hr_k, len) : hr_k);
+                out.appendNumber(tm.getHour() == 0 ? 24 : tm.getHour(), len);
                 break;
             case 'K':
-                int hr_K = tm.getHour() % 12;
-                sb.append(len > 1 ? zfill(hr_K, len) : hr_K);
+                out.appendNumber(tm.getHour() % 12, len);
                 break;
             case 'h':
                 int hr_h = tm.getHour() % 12;
                 if (hr_h == 0)
                     hr_h = 12;
-                sb.append(len > 1 ? zfill(hr_h, len) : hr_h);
+                out.appendNumber(hr_h, len);
                 break;
             case 'm':
-                sb.append(len > 1 ? zfill(tm.getMinute(), len) : tm.getMinute());
+                out.appendNumber(tm.getMinute(), len);
                 break;
             case 's':
-                sb.append(len > 1 ? zfill(tm.getSecond(), len) : tm.getSecond());
+                out.appendNumber(tm.getSecond(), len);
                 break;
             case 'S':
-                sb.append(zfill(tm.getNanosecond(), 9).substring(0, len));
+                out.appendFraction(tm.getNanosecond(), len);
                 break;
             case 'z':
                 if (len > 3) {
-                    sb.append(dt.timeZone().getDisplayName(locale));
+                    out.append(dt.timeZone().getDisplayName(locale));
                 } else {
-                    sb.append(tz.getDisplayName(tz.inDaylightTime(dt.toDate()), TimeZone.SHORT, locale));
+                    out.append(tz.getDisplayName(tz.inDaylightTime(dt.toDate()), TimeZone.SHORT, locale));
                 }
                 break;
             case 'Z':
-                int minutes = tz.getOffset(dt.toMillis()) / 60000;
+                int minutes = ZoneOffsets.getOffset(tz, dt.toMillis()) / 60000;
                 if (minutes < 0) {
-                    sb.append('-');
+                    out.append('-');
                     minutes = -minutes;
                 } else {
-                    sb.append('+');
+                    out.append('+');
                 }
                 int hours = minutes / 60;
                 minutes -= hours * 60;
-                if (hours < 10) {
-                    sb.append('0');
-                }
-                sb.append(hours);
+                out.appendNumber(hours, 2);
                 if (len > 1) {
-                    sb.append(':');
+                    out.append(':');
                 }
-                if (minutes < 10) {
-                    sb.append('0');
-                }
-                sb.append(minutes);
+                out.appendNumber(minutes, 2);
                 break;
             case 'F': // Day of week in month (e.g. 3rd Tuesday)
-                sb.append(zfill(1 + (tm.getDay() - 1) / 7, len));
+                out.appendNumber(1 + (tm.getDay() - 1) / 7, len);
                 break;
             case 'w': // Week in year
                 Tm thu_w = new Tm(dt.add(CalendarUnit.DAY, tm.getWeekday() == 1 ? -3 : 5 - tm.getWeekday()));
                 int dayInYear = dom[thu_w.getMonth() - 1] + thu_w.getDay() + leapDays(thu_w);
-                sb.append(zfill(1 + (dayInYear - 1) / 7, len));
+                out.appendNumber(1 + (dayInYear - 1) / 7, len);
                 break;
             case 'W': // Week in month
                 Tm thu_W = new Tm(dt.add(CalendarUnit.DAY, tm.getWeekday() == 1 ? -3 : 5 - tm.getWeekday()));
-                sb.append(zfill(1 + (thu_W.getDay() - 1) / 7, len));
+                out.appendNumber(1 + (thu_W.getDay() - 1) / 7, len);
                 break;
             default:
-                sb.append(word);
                 break;
         }
     }
 
-    /**
-     * Zero-Fill
-     *
-     * @param value Numeric value
-     * @param size  Width of zero-fill
-     * @return Zero-filled representation of number
-     */
-    private static String zfill(int value, int size) {
-        if (value < 0) value *= -1;
-        String str = Integer.toString(value);
-        StringBuilder zeros = new StringBuilder("000000000000");
-        if (str.length() > size) {
-            return str;
-        }
-        while (zeros.length() + str.length() < size) {
-            zeros.append(zeros.toString());
-        }
-        zeros.append(str);
-        return zeros.substring(zeros.length() - Math.min(zeros.length(), size));
-    }
-
     /**
      * Number leap days in tm's year
      *
@@ -338,4 +562,181 @@ public class DateTimeFormat {
         int year = tm.getYear();
         return year % 4 == 0 && (year % 400 == 0 || year % 100 != 0) ? 1 : 0;
     }
+
+    /**
+     * Reusable character buffer receiving formatted output. Each thread keeps one, along with
+     * a Tm to hold the date parts, so that formatting numeric fields allocates nothing.
+     */
+    private static final class Output {
+        private static final ThreadLocal<Output> PER_THREAD = new ThreadLocal<Output>() {
+            @Override
+            protected Output initialValue() {
+                return new Output(64);
+            }
+        };
+
+        private final Tm tm = new Tm();
+        private char[] chars;
+        private int length;
+        private boolean inUse;
+
+        private Output(int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        /**
+         * @param capacity Expected number of characters
+         * @return This thread's buffer, or a new one if it is already being written
+         */
+        private static Output acquire(int capacity) {
+            Output out = PER_THREAD.get();
+            if (out.inUse) {
+                out = new Output(capacity);
+            }
+            out.inUse = true;
+            out.length = 0;
+            out.ensureCapacity(capacity);
+            return out;
+        }
+
+        private void release() {
+            inUse = false;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > chars.length) {
+                char[] grown = new char[Math.max(capacity, chars.length * 2)];
+                System.arraycopy(chars, 0, grown, 0, length);
+                chars = grown;
+            }
+        }
+
+        private void append(char c) {
+            ensureCapacity(length + 1);
+            chars[length++] = c;
+        }
+
+        private void append(String str) {
+            int size = str.length();
+            ensureCapacity(length + size);
+            str.getChars(0, size, chars, length);
+            length += size;
+        }
+
+        /**
+         * Append the absolute value of a number, zero-filled to a minimum width.
+         *
+         * @param value Numeric value
+         * @param width Minimum number of digits
+         */
+        private void appendNumber(int value, int width) {
+            long abs = Math.abs((long) value);
+            int digits = 1;
+            for (long limit = 10; limit <= abs; limit *= 10) {
+                digits++;
+            }
+            int size = Math.max(digits, width);
+            ensureCapacity(length + size);
+            int pos = length + size;
+            for (int i = 0; i < digits; i++) {
+                chars[--pos] = (char) ('0' + abs % 10);
+                abs /= 10;
+            }
+            while (pos > length) {
+                chars[--pos] = '0';
+            }
+            length += size;
+        }
+
+        /**
+         * Append the leading digits of the nine-digit fraction of a second.
+         *
+         * @param nanos Nanoseconds
+         * @param width Number of digits to show
+         */
+        private void appendFraction(int nanos, int width) {
+            ensureCapacity(length + width);
+            int divisor = 100000000;
+            for (int i = 0; i < width; i++) {
+                chars[length++] = (char) ('0' + (divisor == 0 ? 0 : nanos / divisor % 10));
+                divisor /= 10;
+            }
+        }
+    }
+
+    /**
+     * The names a Locale gives to months, weekdays and AM/PM, copied out of DateFormatSymbols
+     * once. Its getters clone the arrays on every call, and it is not thread-safe itself.
+     */
+    private static final class Symbols {
+        private final String[] months;
+        private final String[] shortMonths;
+        private final String[] weekdays;
+        private final String[] shortWeekdays;
+        private final String[] amPm;
+
+        private Symbols(DateFormatSymbols dfs) {
+            this.months = dfs.getMonths();
+            this.shortMonths = dfs.getShortMonths();
+            this.weekdays = dfs.getWeekdays();
+            this.shortWeekdays = dfs.getShortWeekdays();
+            this.amPm = dfs.getAmPmStrings();
+        }
+
+        private static Symbols forLocale(Locale locale) {
+            Symbols names = symbols.get(locale);
+            if (names == null) {
+                names = new Symbols(new DateFormatSymbols(locale));
+                Symbols prior = symbols.putIfAbsent(locale, names);
+                if (prior != null) {
+                    names = prior;
+                }
+            }
+            return names;
+        }
+    }
+
+    /**
+     * A compiled element of a template: either a field symbol repeated a number of times, or
+     * a segment of literal text.
+     */
+    private static final class Field {
+        private final char symbol;
+        private final int length;
+        private final String literal;
+
+        private Field(char symbol, int length) {
+            this.symbol = symbol;
+            this.length = length;
+            this.literal = null;
+        }
+
+        private Field(String literal) {
+            this.symbol = LITERAL;
+            this.length = literal.length();
+            this.literal = literal;
+        }
+
+        /**
+         * @return Typical number of characters this element contributes to the output
+         */
+        private int estimatedLength() {
+            switch (symbol) {
+                case LITERAL:
+                    return length;
+                case 'M':
+                    return length > 3 ? 9 : Math.max(length, 2);
+                case 'E':
+                    return length > 3 ? 9 : 3;
+                case 'z':
+                    return length > 3 ? 24 : 4;
+                case 'Z':
+                    return 6;
+                case 'y':
+                    return Math.max(length, 4) + 1;
+                default:
+                    return Math.max(length, 2);
+            }
+        }
+    }
 }
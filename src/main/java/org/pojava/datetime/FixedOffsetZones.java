@@ -0,0 +1,139 @@
+package org.pojava.datetime;
+
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * FixedOffsetZones holds the time zones for numeric offsets such as +05:30 or -0800, so that
+ * a date with an offset needs neither an id string built for it nor a call to
+ * TimeZone.getTimeZone. The offsets in use around the world, every quarter hour from -14:00
+ * to +14:00, are made up front. Any other whole minute up to +/-23:59 is made the first time
+ * it is asked for, as is any offset with seconds in it, and kept from then on.
+ * <p>
+ * Zones of whole minutes are those TimeZone.getTimeZone would give for ids such as
+ * GMT+05:30, and have those ids.
+ * </p>
+ *
+ * @author John Pile
+ */
+final class FixedOffsetZones {
+
+    /**
+     * Largest offset in minutes
+     */
+    private static final int SPAN = 24 * 60 - 1;
+
+    /**
+     * Zones by offset in minutes, from -SPAN at index 0 to +SPAN
+     */
+    private static final AtomicReferenceArray<TimeZone> BY_MINUTE = new AtomicReferenceArray<TimeZone>(2 * SPAN + 1);
+
+    /**
+     * Zones with seconds in their offsets, by offset in seconds
+     */
+    private static final ConcurrentMap<Integer, TimeZone> BY_SECOND = new ConcurrentHashMap<Integer, TimeZone>();
+
+    static {
+        for (int minutes = -14 * 60; minutes <= 14 * 60; minutes += 15) {
+            BY_MINUTE.set(minutes + SPAN, TimeZone.getTimeZone(id(minutes * 60)));
+        }
+    }
+
+    private FixedOffsetZones() {
+        // Static methods only
+    }
+
+    /**
+     * @param seconds Offset east of UTC, in seconds
+     * @return Fixed offset time zone, or null if the offset is a day or more
+     */
+    static TimeZone forSeconds(int seconds) {
+        if (seconds <= -Duration.DAY / 1000 || seconds >= Duration.DAY / 1000) {
+            return null;
+        }
+        if (seconds % 60 != 0) {
+            Integer key = Integer.valueOf(seconds);
+            TimeZone tz = BY_SECOND.get(key);
+            if (tz == null) {
+                // TimeZone.getTimeZone has no ids with seconds.
+                tz = new SimpleTimeZone(seconds * 1000, id(seconds));
+                TimeZone existing = BY_SECOND.putIfAbsent(key, tz);
+                if (existing != null) {
+                    tz = existing;
+                }
+            }
+            return tz;
+        }
+        int index = seconds / 60 + SPAN;
+        TimeZone tz = BY_MINUTE.get(index);
+        if (tz == null) {
+            tz = TimeZone.getTimeZone(id(seconds));
+            if (!BY_MINUTE.compareAndSet(index, null, tz)) {
+                tz = BY_MINUTE.get(index);
+            }
+        }
+        return tz;
+    }
+
+    /**
+     * @param id Time zone id
+     * @return Fixed offset time zone for an id of the form GMT+hh:mm, or null for any other id
+     */
+    static TimeZone forId(String id) {
+        if (id.length() != 9 || !id.startsWith("GMT") || id.charAt(6) != ':') {
+            return null;
+        }
+        char sign = id.charAt(3);
+        int hours = digitPair(id, 4);
+        int minutes = digitPair(id, 7);
+        if (sign != '+' && sign != '-' || hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return null;
+        }
+        int seconds = hours * 3600 + minutes * 60;
+        if (sign == '-') {
+            if (seconds == 0) {
+                // GMT-00:00 keeps its own id.
+                return null;
+            }
+            seconds = -seconds;
+        }
+        return forSeconds(seconds);
+    }
+
+    private static int digitPair(String str, int pos) {
+        char tens = str.charAt(pos);
+        char ones = str.charAt(pos + 1);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + ones - '0';
+    }
+
+    /**
+     * @return Id such as GMT+05:30, or GMT+05:30:15 for an offset with seconds
+     */
+    private static String id(int seconds) {
+        int abs = Math.abs(seconds);
+        char[] id = new char[abs % 60 == 0 ? 9 : 12];
+        id[0] = 'G';
+        id[1] = 'M';
+        id[2] = 'T';
+        id[3] = seconds < 0 ? '-' : '+';
+        setPair(id, 4, abs / 3600);
+        id[6] = ':';
+        setPair(id, 7, abs / 60 % 60);
+        if (id.length == 12) {
+            id[9] = ':';
+            setPair(id, 10, abs % 60);
+        }
+        return new String(id);
+    }
+
+    private static void setPair(char[] chars, int pos, int value) {
+        chars[pos] = (char) ('0' + value / 10);
+        chars[pos + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -60,6 +60,20 @@ public interface IDateTimeConfig {
 
     public Integer lookupMonthIndex(String monthNameOrAbbreviation);
 
+    /**
+     * Look up a month name or abbreviation held in a range of characters. This copies the
+     * range and calls lookupMonthIndex(String); DateTimeConfig overrides it to look up the
+     * name without copying it.
+     *
+     * @param chars Characters holding the month name
+     * @param start Position of the first character of the name
+     * @param end   Position just past the last character of the name
+     * @return Zero-based month, or null if the name is not recognized
+     */
+    public default Integer lookupMonthIndex(CharSequence chars, int start, int end) {
+        return lookupMonthIndex(chars.subSequence(start, end).toString());
+    }
+
     public boolean isUnspecifiedCenturyAlwaysInPast();
 
     public long systemTime();
@@ -0,0 +1,181 @@
+package org.pojava.datetime;
+
+import java.util.TimeZone;
+
+/**
+ * IsoDateTimeParser recognizes the fixed layouts of ISO-8601 and RFC 3339 in a single pass,
+ * without regular expressions or intermediate strings. DateTime.parse tries it first and falls
+ * back to the heuristic parser whenever the input strays from these layouts:
+ * <pre>
+ * yyyy-MM-dd
+ * yyyy-MM-dd[T ]HH:mm[:ss[.S{1,9}]]
+ * yyyy-MM-dd[T ]HH:mm[:ss[.S{1,9}]](Z|+HH:mm|-HH:mm|+HHmm|-HHmm)
+ * </pre>
+ * The 'T' and 'Z' may be lower case, and a comma may stand in for the decimal point. A date
+ * without a zone or offset is read in the input time zone of the config.
+ *
+ * @author John Pile
+ */
+final class IsoDateTimeParser {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    /**
+     * Years before this go through Tm.calcTime, which reckons dates before the Gregorian
+     * cutover of 1582 on the Julian calendar.
+     */
+    private static final int GREGORIAN_YEAR = 1600;
+
+    private IsoDateTimeParser() {
+        // Static methods only
+    }
+
+    /**
+     * Parse an ISO-8601 or RFC 3339 date.
+     *
+     * @param str    Date/Time string to be parsed
+     * @param config Configuration parameters governing parsing and presentation
+     * @return New DateTime, or null if the string does not follow a supported layout
+     */
+    static DateTime parse(CharSequence str, IDateTimeConfig config) {
+        DateTime.ParseScratch scratch = new DateTime.ParseScratch();
+        return parse(str, 0, str.length(), config, scratch) ? scratch.toDateTime(config) : null;
+    }
+
+    /**
+     * Parse an ISO-8601 or RFC 3339 date from a range of characters, leaving the instant in
+     * the millis and nanos of the scratch state. Nothing is allocated.
+     *
+     * @param str     Characters holding the date
+     * @param start   Position of the first character of the date
+     * @param end     Position just past the last character of the date
+     * @param config  Configuration parameters governing parsing and presentation
+     * @param scratch Receives the parsed instant
+     * @return True if parsed, or false if the range does not follow a supported layout
+     */
+    static boolean parse(CharSequence str, int start, int end, IDateTimeConfig config,
+                         DateTime.ParseScratch scratch) {
+        int length = end - start;
+        if (length < 10 || str.charAt(start + 4) != '-' || str.charAt(start + 7) != '-') {
+            return false;
+        }
+        int year = digits(str, start, 4);
+        int month = digits(str, start + 5, 2);
+        int day = digits(str, start + 8, 2);
+        if (year <= 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return false;
+        }
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int nanos = 0;
+        boolean zoned = false;
+        int offsetMillis = 0;
+        int pos = start + 10;
+        if (pos < end) {
+            char c = str.charAt(pos);
+            if (c != 'T' && c != 't' && c != ' ' || end - pos < 6 || str.charAt(pos + 3) != ':') {
+                return false;
+            }
+            hour = digits(str, pos + 1, 2);
+            minute = digits(str, pos + 4, 2);
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                return false;
+            }
+            pos += 6;
+            if (pos < end && str.charAt(pos) == ':') {
+                if (end - pos < 3) {
+                    return false;
+                }
+                second = digits(str, pos + 1, 2);
+                if (second < 0 || second > 59) {
+                    return false;
+                }
+                pos += 3;
+                if (pos < end && (str.charAt(pos) == '.' || str.charAt(pos) == ',')) {
+                    int scale = 100000000;
+                    int first = ++pos;
+                    while (pos < end && pos - first < 9) {
+                        c = str.charAt(pos);
+                        if (c < '0' || c > '9') {
+                            break;
+                        }
+                        nanos += (c - '0') * scale;
+                        scale /= 10;
+                        pos++;
+                    }
+                    if (pos == first || pos < end && str.charAt(pos) >= '0' && str.charAt(pos) <= '9') {
+                        return false;
+                    }
+                }
+            }
+            if (pos < end) {
+                c = str.charAt(pos);
+                if ((c == 'Z' || c == 'z') && pos + 1 == end) {
+                    zoned = true;
+                } else if (c == '+' || c == '-') {
+                    int offsetMinutes;
+                    if (end - pos == 6 && str.charAt(pos + 3) == ':') {
+                        offsetMinutes = digits(str, pos + 4, 2);
+                    } else if (end - pos == 5) {
+                        offsetMinutes = digits(str, pos + 3, 2);
+                    } else {
+                        return false;
+                    }
+                    int offsetHours = digits(str, pos + 1, 2);
+                    if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59) {
+                        return false;
+                    }
+                    offsetMillis = (offsetHours * 60 + offsetMinutes) * 60000;
+                    if (c == '-') {
+                        offsetMillis = -offsetMillis;
+                    }
+                    zoned = true;
+                } else {
+                    return false;
+                }
+            }
+        }
+        int milli = nanos / 1000000;
+        long millis;
+        if (!zoned) {
+            millis = Tm.calcTime(year, month, day, hour, minute, second, milli, config.getInputTimeZone());
+        } else if (year < GREGORIAN_YEAR) {
+            millis = Tm.calcTime(year, month, day, hour, minute, second, milli, UTC) - offsetMillis;
+        } else {
+            millis = Tm.epochDay(year, month, day) * Duration.DAY + hour * Duration.HOUR
+                    + minute * Duration.MINUTE + second * Duration.SECOND + milli - offsetMillis;
+        }
+        scratch.millis = millis;
+        scratch.nanos = nanos;
+        return true;
+    }
+
+    /**
+     * Read a fixed number of decimal digits.
+     *
+     * @param str   Characters to read
+     * @param pos   Position of the first digit
+     * @param count Number of digits
+     * @return Value of the digits, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence str, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year < GREGORIAN_YEAR || year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+}
@@ -88,6 +88,11 @@ public class LocalConfig implements IDateTimeConfig {
         return config.lookupMonthIndex(monthNameOrAbbreviation);
     }
 
+    @Override
+    public Integer lookupMonthIndex(CharSequence chars, int start, int end) {
+        return config.lookupMonthIndex(chars, start, end);
+    }
+
     @Override
     public boolean isUnspecifiedCenturyAlwaysInPast() {
         return config.isUnspecifiedCenturyAlwaysInPast();
@@ -1,22 +1,57 @@
 package org.pojava.datetime;
 
 import java.text.DateFormatSymbols;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
- * This is a language-agnostic mapping of month abbreviations to month numbers
+ * This is a language-agnostic mapping of month abbreviations to month numbers.
+ * <p/>
+ * The names themselves are held in an immutable table. Every MonthMap from fromAllLocales
+ * shares one table of all languages, and adding a month gives that MonthMap its own copy
+ * of the table before changing it, so no other MonthMap is affected.
  */
 public class MonthMap {
 
-    private Map<String, Integer> monthMap = new HashMap<String, Integer>();
+    private static final Table EMPTY = new Table(new HashMap<String, Integer>());
+
+    private volatile Table table;
 
     public MonthMap() {
+        this.table = EMPTY;
+    }
+
+    private MonthMap(Table table) {
+        this.table = table;
     }
 
+    /**
+     * Recognize the month names of every Locale, as recorded in the table generated from the
+     * JDK's locale data when this library was built. Loading the table is far quicker than
+     * scanning every Locale, which is only done if the table is missing. The table is loaded
+     * once and shared by every MonthMap returned here.
+     *
+     * @return A MonthMap of month names in all known languages
+     */
     public static MonthMap fromAllLocales() {
-        MonthMap newMonthMap = new MonthMap();
+        return new MonthMap(AllLocales.TABLE);
+    }
+
+    /**
+     * Recognize the month names of every Locale, read afresh from the locale data of the
+     * running JDK. This is slow, but picks up any names that differ from the bundled table.
+     *
+     * @return A MonthMap of month names in all known languages
+     */
+    public static MonthMap scanAllLocales() {
+        return new MonthMap(new Table(scan()));
+    }
+
+    private static Map<String, Integer> scan() {
+        Map<String, Integer> names = new HashMap<String, Integer>();
         Locale[] locales = DateFormatSymbols.getAvailableLocales();
         for (Locale locale : locales) {
             DateFormatSymbols dfs = DateFormatSymbols.getInstance(locale);
@@ -24,25 +59,44 @@ public class MonthMap {
             String[] shortMonths = dfs.getShortMonths();
             for (int i = 0; i < 12; i++) {
                 String shortMonth = shortMonths[i].toUpperCase();
-                String shortMonth4 = shortMonths[i].toUpperCase().substring(0, Math.min(4, shortMonths[i].length()));
+                // Upper case may lengthen a name, but the prefix is as long as the name was.
+                String shortMonth4 = leading(shortMonth, Math.min(4, shortMonths[i].codePointCount(0,
+                        shortMonths[i].length())));
                 String longMonth = longMonths[i].toUpperCase();
                 if (longMonth.startsWith(shortMonth4) || shortMonth4.endsWith(".")) {
                     // If a truncated month name matches its 4-char abbrev, we'll use it.
                     // The goal is to support both standard and non-standard abbreviations like "Octob".
-                    newMonthMap.addMonth(shortMonth4, i);
+                    register(names, shortMonth4, i);
                     // Finland's 11th month starts with "MAR" which collides with EN on 3-char abbrevs.
                     // Except for that, we'll recognize 3-char abbreviations
-                    if (shortMonth4.length() == 4 && !locale.toString().startsWith("fi")) {
-                        newMonthMap.addMonth(shortMonth.substring(0, 3), i);
+                    if (shortMonth4.codePointCount(0, shortMonth4.length()) == 4 && !locale.toString().startsWith("fi")) {
+                        register(names, leading(shortMonth, 3), i);
                     }
                 } else {
                     // Otherwise, we'll strictly match the abbreviation and full name
-                    newMonthMap.addMonth(shortMonth, i);
-                    newMonthMap.addMonth(longMonth, i);
+                    register(names, shortMonth, i);
+                    register(names, longMonth, i);
                 }
             }
         }
-        return newMonthMap;
+        return names;
+    }
+
+    /**
+     * @return The first characters of a name, counting a surrogate pair as one character so
+     * that it is never split
+     */
+    private static String leading(String name, int count) {
+        return name.substring(0, name.offsetByCodePoints(0, count));
+    }
+
+    /**
+     * The first month registered under a name keeps it.
+     */
+    private static void register(Map<String, Integer> names, String abbrev, Integer monthNumber) {
+        if (!names.containsKey(abbrev)) {
+            names.put(abbrev, monthNumber);
+        }
     }
 
     /**
@@ -55,35 +109,211 @@ public class MonthMap {
         if (candidateMonth == null) {
             return null;
         }
-        candidateMonth = candidateMonth.toUpperCase();
-        // First, try for an exact match
-        Integer monthIndex = monthMap.get(candidateMonth);
-        // If no match, try an abbrev of four characters if possible
-        if (monthIndex == null && candidateMonth.length() > 4) {
-            monthIndex = monthMap.get(candidateMonth.substring(0, 4));
-        }
-        // If still no match, truncate to 3 characters and retry
-        // Consider where candidateMonth="DEC." and abbrev="DEC".
-        if (monthIndex == null && candidateMonth.length() > 3) {
-            monthIndex = monthMap.get(candidateMonth.substring(0, 3));
-        }
-        return monthIndex;
+        return monthIndex(candidateMonth, 0, candidateMonth.length());
+    }
+
+    /**
+     * Returns a multi-language lookup based on the first 3 or 4 characters of a month, reading
+     * the word directly from a range of characters.
+     *
+     * @param chars Characters holding the word
+     * @param start Position of the first character of the word
+     * @param end   Position just past the last character of the word
+     * @return null if no match found, or an Integer between 0 and 11
+     */
+    public Integer monthIndex(CharSequence chars, int start, int end) {
+        int monthIndex = table.trie().lookup(chars, start, end);
+        return monthIndex < 0 ? null : Integer.valueOf(monthIndex);
     }
 
     /**
-     * Registers a new month abbreviation.  Will ignore duplicates.
+     * Registers a new month abbreviation.  Will ignore duplicates. The names are copied rather
+     * than changed in place, since they may be shared with other MonthMaps.
      *
      * @param abbrev      Month abbreviation (must be either 3 or 4 characters)
      * @param monthNumber In range 1..12
      */
-    public void addMonth(String abbrev, Integer monthNumber) {
+    public synchronized void addMonth(String abbrev, Integer monthNumber) {
         abbrev = abbrev.toUpperCase();
-        if (!monthMap.containsKey(abbrev)) {
-            monthMap.put(abbrev, monthNumber);
+        if (!table.names.containsKey(abbrev)) {
+            Map<String, Integer> names = new HashMap<String, Integer>(table.names);
+            names.put(abbrev, monthNumber);
+            table = new Table(names);
         }
     }
 
+    /**
+     * @return Every registered name, upper case, with its zero-based month
+     */
+    Map<String, Integer> names() {
+        return table.names;
+    }
+
+    /**
+     * @return A MonthMap sharing the names as they stand, which months added to either one
+     * later do not reach
+     */
+    MonthMap copy() {
+        return new MonthMap(table);
+    }
+
+    /**
+     * @return true if this MonthMap shares its names with the given MonthMap
+     */
+    boolean sharesNamesWith(MonthMap other) {
+        return table == other.table;
+    }
+
     public boolean isEmpty() {
-        return monthMap == null || monthMap.isEmpty();
+        return table.names.isEmpty();
+    }
+
+    /**
+     * The month names of every Locale, loaded on first use.
+     */
+    private static final class AllLocales {
+        private static final Table TABLE = load();
+
+        private static Table load() {
+            Map<String, Integer> names = new HashMap<String, Integer>();
+            if (!MonthTable.load(names)) {
+                names = scan();
+            }
+            return new Table(names);
+        }
+    }
+
+    /**
+     * An immutable set of month names, with the trie used to look them up.
+     */
+    private static final class Table {
+        private final Map<String, Integer> names;
+        private volatile Trie trie;
+
+        private Table(Map<String, Integer> names) {
+            this.names = Collections.unmodifiableMap(names);
+        }
+
+        /**
+         * @return The trie of these names, built on first use
+         */
+        private Trie trie() {
+            Trie current = trie;
+            if (current == null) {
+                current = new Trie(names);
+                trie = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * An immutable, case-insensitive character trie of month names. A lookup makes a single
+     * pass over the word, preferring an exact match, then its first four characters, then its
+     * first three. A surrogate pair counts as one character.
+     */
+    private static final class Trie {
+        private final Node root;
+
+        private Trie(Map<String, Integer> names) {
+            NodeBuilder builder = new NodeBuilder();
+            for (Map.Entry<String, Integer> entry : names.entrySet()) {
+                NodeBuilder node = builder;
+                String name = entry.getKey();
+                for (int i = 0; i < name.length(); ) {
+                    int codePoint = name.codePointAt(i);
+                    i += Character.charCount(codePoint);
+                    for (char c : Character.toChars(Character.toUpperCase(codePoint))) {
+                        NodeBuilder child = node.children.get(c);
+                        if (child == null) {
+                            child = new NodeBuilder();
+                            node.children.put(c, child);
+                        }
+                        node = child;
+                    }
+                }
+                if (node.month < 0) {
+                    node.month = entry.getValue();
+                }
+            }
+            this.root = builder.build();
+        }
+
+        /**
+         * @return Zero-based month, or -1 if the word is not a known month
+         */
+        private int lookup(CharSequence chars, int start, int end) {
+            int byPrefix = -1;
+            int depth = 0;
+            Node node = root;
+            for (int i = start; i < end && node != null; i++) {
+                char c = chars.charAt(i);
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    int upper = Character.toUpperCase(Character.toCodePoint(c, chars.charAt(++i)));
+                    if (Character.isSupplementaryCodePoint(upper)) {
+                        node = node.child(Character.highSurrogate(upper));
+                        if (node != null) {
+                            node = node.child(Character.lowSurrogate(upper));
+                        }
+                    } else {
+                        node = node.child((char) upper);
+                    }
+                } else {
+                    node = node.child(Character.toUpperCase(c));
+                }
+                depth++;
+                if (node != null && node.month >= 0 && i + 1 < end && (depth == 4 || depth == 3 && byPrefix < 0)) {
+                    byPrefix = node.month;
+                }
+            }
+            if (node != null && node.month >= 0) {
+                return node.month;
+            }
+            return byPrefix;
+        }
+    }
+
+    private static final class Node {
+        private final char[] labels;
+        private final Node[] children;
+        private final int month;
+
+        private Node(char[] labels, Node[] children, int month) {
+            this.labels = labels;
+            this.children = children;
+            this.month = month;
+        }
+
+        private Node child(char c) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (labels[mid] < c) {
+                    low = mid + 1;
+                } else if (labels[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final TreeMap<Character, NodeBuilder> children = new TreeMap<Character, NodeBuilder>();
+        private int month = -1;
+
+        private Node build() {
+            char[] labels = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, NodeBuilder> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(labels, nodes, month);
+        }
     }
 }
@@ -0,0 +1,126 @@
+package org.pojava.datetime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MonthTable reads and writes the table of month names that ships with this library, so that
+ * MonthMap.fromAllLocales need not scan the locale data of every Locale at startup. Each line
+ * of the table holds an upper-case month name, a tab, and its zero-based month.
+ * <p/>
+ * The table is regenerated from the JDK's locale data by running this class, which the
+ * "regenerate-months" Maven profile does:
+ * <pre>
+ * mvn -Pregenerate-months process-classes
+ * </pre>
+ *
+ * @author John Pile
+ */
+public final class MonthTable {
+
+    /**
+     * Location of the table, relative to this class.
+     */
+    static final String RESOURCE = "months.txt";
+
+    private static final String ENCODING = "UTF-8";
+
+    private MonthTable() {
+        // Static methods only
+    }
+
+    /**
+     * Load the bundled table.
+     *
+     * @param names Map receiving each name and its zero-based month
+     * @return false if the table is not on the classpath
+     */
+    static boolean load(Map<String, Integer> names) {
+        InputStream in = MonthTable.class.getResourceAsStream(RESOURCE);
+        if (in == null) {
+            return false;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32768);
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, count);
+            }
+            String table = new String(bytes.toByteArray(), ENCODING);
+            int start = 0;
+            int length = table.length();
+            while (start < length) {
+                int end = table.indexOf('\n', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (table.charAt(start) != '#') {
+                    int tab = table.lastIndexOf('\t', end);
+                    if (tab > start) {
+                        int month = 0;
+                        for (int i = tab + 1; i < end; i++) {
+                            month = month * 10 + table.charAt(i) - '0';
+                        }
+                        names.put(table.substring(start, tab), Integer.valueOf(month));
+                    }
+                }
+                start = end + 1;
+            }
+            return true;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to read the month table.", ex);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // Nothing left to read
+            }
+        }
+    }
+
+    /**
+     * Write a table of month names, sorted so that regenerating it yields a readable diff.
+     *
+     * @param monthMap Month names to record
+     * @param out      Destination of the table
+     * @throws IOException if the table cannot be written
+     */
+    static void write(MonthMap monthMap, Writer out) throws IOException {
+        Map<String, Integer> sorted = new TreeMap<String, Integer>(monthMap.names());
+        out.write("# Month names of every Locale, generated by org.pojava.datetime.MonthTable on Java "
+                + System.getProperty("java.version") + "\n");
+        for (Map.Entry<String, Integer> entry : sorted.entrySet()) {
+            out.write(entry.getKey());
+            out.write('\t');
+            out.write(entry.getValue().toString());
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Regenerate the table by scanning the locale data of the running JDK.
+     *
+     * @param args Path of the table to write
+     * @throws IOException if the table cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: MonthTable <path to " + RESOURCE + ">");
+        }
+        // Fail on any name that cannot be written faithfully, rather than writing '?'.
+        Writer out = new OutputStreamWriter(new FileOutputStream(args[0]), Charset.forName(ENCODING).newEncoder());
+        try {
+            write(MonthMap.scanAllLocales(), out);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -16,8 +16,6 @@ package org.pojava.datetime;
  limitations under the License.
  */
 
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 /**
@@ -42,12 +40,17 @@ public class Tm {
             153 * DAY, 184 * DAY, 214 * DAY, 245 * DAY, 275 * DAY, 306 * DAY, 337 * DAY,
             365 * DAY};
     /**
-     * The true Gregorian Calendar was initiated in October 1582, but this start date is easier
+     * The true Gregorian Calendar was initiated in October 1582, but March 1, 1600 is easier
      * for calculations, so I use it as an epoch. The year starts on March 1 so that a leap day
      * is always at the end of a year.
      */
-    private static final long GREG_EPOCH_UTC = -11670912000000L;
-    private static final long START_OF_AD = -62135740800000L;
+    private static final long GREG_EPOCH_DAY = -135080;
+    /**
+     * Calendar reckons dates before 1582-10-15 on the Julian calendar.
+     */
+    private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+    static final long GREGORIAN_CUTOVER_DAY = -141427;
+    private static final String ZONE_INFO_CLASS = "sun.util.calendar.ZoneInfo";
     /**
      * These are the results we're looking to populate.
      */
@@ -60,6 +63,24 @@ public class Tm {
     private int nanosecond;
     private int weekday;
     private TimeZone tz;
+    /**
+     * Span of offset of the last instant set, kept so that a reused Tm seldom looks it up
+     */
+    private ZoneOffsets.Span span;
+
+    /**
+     * An empty Tm, to be populated by set. A single Tm can be set over and over, as when
+     * breaking a long run of timestamps into their parts, without allocating anything.
+     * <pre>
+     * Tm tm = new Tm();
+     * for (long millis : timestamps) {
+     *     counts[tm.set(millis, tz).getHour()]++;
+     * }
+     * </pre>
+     */
+    public Tm() {
+        // Populated by set
+    }
 
     /**
      * Populate year, month, day, hour, min, sec, nano from a DateTime
@@ -86,8 +107,7 @@ public class Tm {
      * @param millis Date/Time in UTC assuming the default time zone.
      */
     public Tm(long millis) {
-        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
-        init(new DateTime(millis, config), config.getOutputTimeZone());
+        set(millis, null);
     }
 
     /**
@@ -97,32 +117,57 @@ public class Tm {
      * @param tz     TimeZone represented by the Tm
      */
     public Tm(long millis, TimeZone tz) {
-        IDateTimeConfig globalDefault = DateTimeConfig.getGlobalDefault();
-        if (tz == null) tz = globalDefault.getOutputTimeZone();
-        LocalConfig config = LocalConfig.instanceOverridingOutputTimeZone(globalDefault, tz);
-        init(new DateTime(millis, config), tz);
-    }
-
-    /**
-     * We'll direct the pre-GREG_EPOCH times here for now. Most folks don't use them, so
-     * optimizing is not my highest priority.
-     *
-     * @param millis Number of milliseconds since epoch (typically negative)
-     */
-    private void initYeOlde(long millis) {
-        // Taking the easy way out...
-        Calendar cal = new GregorianCalendar(this.tz);
-        cal.setTimeInMillis(millis);
-        this.year = cal.get(Calendar.YEAR);
-        this.month = 1 + cal.get(Calendar.MONTH);
-        this.day = cal.get(Calendar.DATE);
-        this.hour = cal.get(Calendar.HOUR_OF_DAY);
-        this.minute = cal.get(Calendar.MINUTE);
-        this.second = cal.get(Calendar.SECOND);
-        this.weekday = cal.get(Calendar.DAY_OF_WEEK);
-        if (millis < START_OF_AD) {
-            year = -year;
-        }
+        set(millis, tz);
+    }
+
+    /**
+     * Constructor, optionally reckoning dates before October 15, 1582 on the proleptic
+     * Gregorian calendar rather than on the Julian calendar, as ISO 8601 does.
+     *
+     * @param millis    Millis since epoch
+     * @param tz        TimeZone represented by the Tm
+     * @param proleptic True for the Gregorian calendar at all dates
+     */
+    public Tm(long millis, TimeZone tz, boolean proleptic) {
+        init(millis, (int) (millis - floorDiv(millis, 1000) * 1000) * 1000000,
+                tz != null ? tz : DateTimeConfig.getGlobalDefault().getOutputTimeZone(), proleptic);
+    }
+
+    /**
+     * Repopulate this Tm in place, so a single instance can be reused.
+     *
+     * @param dt DateTime object
+     * @param tz Assert a time zone under which those values are represented.
+     * @return This Tm
+     */
+    public Tm set(DateTime dt, TimeZone tz) {
+        init(dt, tz);
+        return this;
+    }
+
+    /**
+     * Repopulate this Tm in place from milliseconds since epoch.
+     *
+     * @param millis Millis since epoch
+     * @param tz     TimeZone represented by the Tm, or null for the default output time zone
+     * @return This Tm
+     */
+    public Tm set(long millis, TimeZone tz) {
+        return set(millis, (int) (millis - floorDiv(millis, 1000) * 1000) * 1000000, tz);
+    }
+
+    /**
+     * Repopulate this Tm in place from milliseconds since epoch and a finer fraction of the
+     * second, as held by a DateTime or a Timestamp.
+     *
+     * @param millis Millis since epoch
+     * @param nanos  Fraction of the second in nanoseconds
+     * @param tz     TimeZone represented by the Tm, or null for the default output time zone
+     * @return This Tm
+     */
+    public Tm set(long millis, int nanos, TimeZone tz) {
+        init(millis, nanos, tz != null ? tz : DateTimeConfig.getGlobalDefault().getOutputTimeZone());
+        return this;
     }
 
     /**
@@ -132,27 +177,73 @@ public class Tm {
      * @param timeZone TimeZone under which Tm will be represented
      */
     private void init(DateTime dt, TimeZone timeZone) {
-        this.tz = timeZone != null ? timeZone : dt.config().getOutputTimeZone();
-        long millis = dt.toMillis();
+        init(dt.toMillis(), dt.getNanos(), timeZone != null ? timeZone : dt.config().getOutputTimeZone());
+    }
+
+    /**
+     * Calculate date parts, on the Julian calendar before the Gregorian cutover of 1582.
+     *
+     * @param millis   Millis since epoch
+     * @param nanos    Fraction of the second in nanoseconds
+     * @param timeZone TimeZone under which Tm will be represented
+     */
+    private void init(long millis, int nanos, TimeZone timeZone) {
+        init(millis, nanos, timeZone, false);
+    }
+
+    /**
+     * Calculate date parts.
+     *
+     * @param millis    Millis since epoch
+     * @param nanos     Fraction of the second in nanoseconds
+     * @param timeZone  TimeZone under which Tm will be represented
+     * @param proleptic True for the Gregorian calendar at all dates
+     */
+    private void init(long millis, int nanos, TimeZone timeZone, boolean proleptic) {
         // Compensate for difference between the system time zone and the recorded time zone
-        long duration = millis - GREG_EPOCH_UTC + timeZone.getOffset(dt.toMillis());
-        this.nanosecond = dt.getNanos();
-        this.weekday = calcWeekday(millis, timeZone);
-        if (millis < GREG_EPOCH_UTC - this.tz.getRawOffset()) {
-            initYeOlde(millis);
-            return;
+        int zoneOffset;
+        if (timeZone == this.tz && span != null && millis >= span.start && millis < span.end) {
+            zoneOffset = span.offset;
+        } else {
+            span = ZoneOffsets.of(timeZone).span(millis);
+            zoneOffset = span == null ? timeZone.getOffset(millis) : span.offset;
+        }
+        this.tz = timeZone;
+        this.nanosecond = nanos;
+        this.weekday = calcWeekday(millis, zoneOffset, DateTimeConfig.getGlobalDefault().getEpochDOW());
+        // Split into days and time of day first, so that no instant overflows.
+        long epochDay = floorDiv(millis, DAY);
+        long timeOfDay = millis - epochDay * DAY + zoneOffset;
+        if (timeOfDay < 0) {
+            epochDay--;
+            timeOfDay += DAY;
+        } else if (timeOfDay >= DAY) {
+            epochDay++;
+            timeOfDay -= DAY;
+        }
+        long duration;
+        if (epochDay < GREGORIAN_CUTOVER_DAY && !proleptic) {
+            // Julian years, starting March 1 of year 0, come in blocks of 4.
+            long days = epochDay + 719470;
+            long quadYears = floorDiv(days, 1461);
+            days -= quadYears * 1461;
+            duration = days * DAY + timeOfDay;
+            year = Math.min(3, (int) (duration / YEAR));
+            duration -= year * YEAR;
+            year += quadYears * 4;
+        } else {
+            // Remove 400yr blocks, then 100yr, then 4, then 1.
+            long quadCents = floorDiv(epochDay - GREG_EPOCH_DAY, 146097);
+            duration = (epochDay - GREG_EPOCH_DAY - quadCents * 146097) * DAY + timeOfDay;
+            long cents = Math.min(3, duration / CENT);
+            duration -= cents * CENT;
+            long quadYears = duration / QUADYEAR;
+            duration -= quadYears * QUADYEAR;
+            year = Math.min(3, (int) (duration / YEAR));
+            duration -= year * YEAR;
+            // Calculate year based on those blocks
+            year += 1600 + quadCents * 400 + cents * 100 + quadYears * 4;
         }
-        // Remove 400yr blocks, then 100yr, then 4, then 1.
-        long quadCents = duration / QUADCENT;
-        duration -= quadCents * QUADCENT;
-        long cents = Math.min(3, duration / CENT);
-        duration -= cents * CENT;
-        long quadYears = duration / QUADYEAR;
-        duration -= quadYears * QUADYEAR;
-        year = Math.min(3, (int) (duration / YEAR));
-        duration -= year * YEAR;
-        // Calculate year based on those blocks
-        year += 1600 + quadCents * 400 + cents * 100 + quadYears * 4;
         month = (int) (duration / (30 * DAY));
         if (MONTH[month] <= duration) {
             month++;
@@ -180,7 +271,28 @@ public class Tm {
                 month -= 12;
             }
         }
+        if (year <= 0) {
+            // There is no year 0, so 1 BC is year -1.
+            year--;
+        }
+    }
 
+    /**
+     * Count the days from 1970-01-01 to a date on the proleptic Gregorian calendar.
+     *
+     * @param year  calendar year (astronomical, so 1 BC is year 0)
+     * @param month calendar month, Jan=1
+     * @param day   calendar day
+     * @return days since epoch, negative for earlier dates
+     */
+    static long epochDay(int year, int month, int day) {
+        // Count from March 1 so that a leap day is always at the end of a year.
+        long y = month > 2 ? year : year - 1L;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
     }
 
     /**
@@ -191,13 +303,26 @@ public class Tm {
      * @return Numeric day of week, usually Sun=1, Mon=2, ... , Sat=7. See DateTimeConfig.
      */
     public static int calcWeekday(long millis, TimeZone timeZone) {
-        long leftover = 0;
-        // Adding 2000 years in weeks makes all calculations positive.
+        return calcWeekday(millis, ZoneOffsets.getOffset(timeZone, millis),
+                DateTimeConfig.getGlobalDefault().getEpochDOW());
+    }
+
+    /**
+     * Return numeric day of week, usually Sun=1, Mon=2, ... , Sat=7;
+     *
+     * @param millis     milliseconds since epoch
+     * @param zoneOffset offset of the time zone at that instant, in milliseconds
+     * @param epochDOW   day of week of the epoch
+     * @return Numeric day of week
+     */
+    static int calcWeekday(long millis, int zoneOffset, int epochDOW) {
+        // Whole weeks are removed first, so that no instant overflows.
         // Adding epoch DOW shifts us into phase with start of week.
-        long offset = DateTimeConfig.getGlobalDefault().getEpochDOW() * Duration.DAY + 52
-                * Duration.WEEK * 2000;
-        leftover = offset + millis + timeZone.getOffset(millis);
+        long leftover = millis % Duration.WEEK + zoneOffset + epochDOW * Duration.DAY;
         leftover %= Duration.WEEK;
+        if (leftover < 0) {
+            leftover += Duration.WEEK;
+        }
         leftover /= Duration.DAY;
         // Convert from zero to one based
         leftover++;
@@ -251,15 +376,260 @@ public class Tm {
      */
     public static long calcTime(int year, int month, int day, int hour, int min, int sec,
                                 int milli, TimeZone tz) {
-        Calendar cal = Calendar.getInstance(tz);
-        cal.set(Calendar.YEAR, year);
-        cal.set(Calendar.MONTH, month - 1);
-        cal.set(Calendar.DAY_OF_MONTH, day);
-        cal.set(Calendar.HOUR_OF_DAY, hour);
-        cal.set(Calendar.MINUTE, min);
-        cal.set(Calendar.SECOND, sec);
-        cal.set(Calendar.MILLISECOND, milli);
-        return cal.getTimeInMillis();
+        // Carry overflowing fields up into days and years, as a lenient Calendar would.
+        long timeOfDay = ((hour * 60L + min) * 60 + sec) * 1000 + milli;
+        long days = floorDiv(timeOfDay, DAY);
+        timeOfDay -= days * DAY;
+        int years = (int) floorDiv(month - 1, 12);
+        int normalYear = year + years;
+        int normalMonth = month - years * 12;
+        long epochDay;
+        if (year < GREGORIAN_CUTOVER_YEAR) {
+            epochDay = days + julianEpochDay(normalYear, normalMonth, day);
+        } else {
+            epochDay = days + epochDay(normalYear, normalMonth, day);
+            if (epochDay < GREGORIAN_CUTOVER_DAY) {
+                epochDay = days + julianEpochDay(normalYear, normalMonth, day);
+            }
+        }
+        return fromWallTime(epochDay * DAY + timeOfDay, tz);
+    }
+
+    /**
+     * Convert a local wall time to milliseconds since epoch, resolving daylight saving
+     * transitions as GregorianCalendar does. A wall time skipped by a transition is moved
+     * forward, and a wall time repeated by one is taken after the transition. Zones other
+     * than the JDK's own, such as a SimpleTimeZone, are looked up at standard time instead.
+     *
+     * @param wall milliseconds since epoch as read on a clock in the time zone
+     * @param tz   time zone of the clock
+     * @return milliseconds since epoch, UTC
+     */
+    static long fromWallTime(long wall, TimeZone tz) {
+        if (!ZONE_INFO_CLASS.equals(tz.getClass().getName())) {
+            return wall - tz.getOffset(wall - tz.getRawOffset());
+        }
+        // A day either side is far enough to straddle any transition near the wall time.
+        ZoneOffsets offsets = ZoneOffsets.of(tz);
+        int before = offsets.getOffset(wall - DAY);
+        int after = offsets.getOffset(wall + DAY);
+        if (before == after || offsets.getOffset(wall - after) == after) {
+            return wall - after;
+        }
+        return wall - before;
+    }
+
+    /**
+     * Add days to an instant, keeping the time of day on the clock of a time zone, as
+     * GregorianCalendar.add does. Where a daylight saving transition lies between, the clock
+     * is kept unless that would move the instant to another date.
+     *
+     * @param millis milliseconds since epoch
+     * @param days   days to add, positive or negative
+     * @param tz     time zone of the clock
+     * @return milliseconds since epoch, UTC
+     */
+    static long addDays(long millis, long days, TimeZone tz) {
+        ZoneOffsets offsets = ZoneOffsets.of(tz);
+        int offset = offsets.getOffset(millis);
+        long shifted = millis + days * DAY;
+        int change = offset - offsets.getOffset(shifted);
+        if (change != 0) {
+            long adjusted = shifted + change;
+            long day = floorDiv(millis + offset, DAY) + days;
+            if (floorDiv(adjusted + offsets.getOffset(adjusted), DAY) == day) {
+                return adjusted;
+            }
+        }
+        return shifted;
+    }
+
+    /**
+     * Add months to an instant, keeping the day of the month and the time of day on the clock
+     * of a time zone, as GregorianCalendar.add does. A day past the end of the new month is
+     * moved back to its last day.
+     *
+     * @param millis milliseconds since epoch
+     * @param months months to add, positive or negative
+     * @param tz     time zone of the clock
+     * @return milliseconds since epoch, UTC
+     */
+    static long addMonths(long millis, long months, TimeZone tz) {
+        Tm tm = new Tm(millis, tz);
+        // Count years astronomically, so that 1 BC is year 0.
+        long month = tm.month - 1 + months;
+        long years = floorDiv(month, 12);
+        int year = (int) ((tm.year < 0 ? tm.year + 1 : tm.year) + years);
+        int newMonth = (int) (month - years * 12) + 1;
+        int day = tm.day;
+        if (isPinned(year)) {
+            day = Math.min(day, daysInMonth(year, newMonth));
+        }
+        return calcTime(year, newMonth, day, tm.hour, tm.minute, tm.second, tm.getMillisecond(), tz);
+    }
+
+    /**
+     * Add years, months, weeks and days to an instant, in that order, as successive calls of
+     * GregorianCalendar.add would. The date is broken into its parts once, the period is
+     * added to those parts, and the result is resolved to an instant once. Only where a step
+     * would land near a daylight saving transition, or in the Julian to Gregorian cutover,
+     * is the period added one step at a time, since the clock may then move between steps.
+     *
+     * @param millis milliseconds since epoch
+     * @param years  years to add
+     * @param months months to add
+     * @param weeks  weeks to add
+     * @param days   days to add
+     * @param tz     time zone of the clock
+     * @return milliseconds since epoch, UTC
+     */
+    static long addPeriod(long millis, int years, int months, int weeks, int days, TimeZone tz) {
+        if (years == 0 && months == 0 && weeks == 0 && days == 0) {
+            return millis;
+        }
+        Tm tm = new Tm(millis, tz);
+        ZoneOffsets offsets = ZoneOffsets.of(tz);
+        long timeOfDay = ((tm.hour * 60L + tm.minute) * 60 + tm.second) * 1000 + tm.getMillisecond();
+        // Count years astronomically, so that 1 BC is year 0.
+        int year = tm.year < 0 ? tm.year + 1 : tm.year;
+        int month = tm.month;
+        int day = tm.day;
+        if (years != 0) {
+            year += years;
+            if (day > daysInMonth(year, month)) {
+                if (!isPinned(year)) {
+                    return addSteps(millis, years, months, weeks, days, tz);
+                }
+                day = daysInMonth(year, month);
+            }
+            if ((months != 0 || weeks != 0 || days != 0) && !isSteady(offsets, year, month, day, timeOfDay)) {
+                return addSteps(millis, years, months, weeks, days, tz);
+            }
+        }
+        if (months != 0) {
+            long total = month - 1L + months;
+            long carry = floorDiv(total, 12);
+            year += carry;
+            month = (int) (total - carry * 12) + 1;
+            if (day > daysInMonth(year, month)) {
+                if (!isPinned(year)) {
+                    return addSteps(millis, years, months, weeks, days, tz);
+                }
+                day = daysInMonth(year, month);
+            }
+            if ((weeks != 0 || days != 0) && !isSteady(offsets, year, month, day, timeOfDay)) {
+                return addSteps(millis, years, months, weeks, days, tz);
+            }
+        }
+        long epochDay = civilEpochDay(year, month, day);
+        if (weeks != 0 || days != 0) {
+            long wall = (epochDay + weeks * 7L) * DAY + timeOfDay;
+            if (weeks != 0 && days != 0 && !offsets.isSteady(wall - 2 * DAY, wall + 2 * DAY)) {
+                return addSteps(millis, years, months, weeks, days, tz);
+            }
+            wall += days * DAY;
+            // A day added to a clock time that is skipped or repeated depends upon the offset before.
+            if (!offsets.isSteady(wall - 2 * DAY, wall + 2 * DAY)) {
+                return addSteps(millis, years, months, weeks, days, tz);
+            }
+            return fromWallTime(wall, tz);
+        }
+        return fromWallTime(epochDay * DAY + timeOfDay, tz);
+    }
+
+    /**
+     * Add years, months, weeks and days one at a time, resolving the instant after each.
+     */
+    private static long addSteps(long millis, int years, int months, int weeks, int days, TimeZone tz) {
+        if (years != 0) {
+            millis = addMonths(millis, years * 12L, tz);
+        }
+        if (months != 0) {
+            millis = addMonths(millis, months, tz);
+        }
+        if (weeks != 0) {
+            millis = addDays(millis, weeks * 7L, tz);
+        }
+        if (days != 0) {
+            millis = addDays(millis, days, tz);
+        }
+        return millis;
+    }
+
+    /**
+     * @return True if a clock time falls where it has one offset for a couple of days around,
+     *         and not within the days dropped at the Gregorian cutover
+     */
+    private static boolean isSteady(ZoneOffsets offsets, int year, int month, int day, long timeOfDay) {
+        if (year == GREGORIAN_CUTOVER_YEAR && month == 10 && day > 4 && day < 15) {
+            return false;
+        }
+        long wall = civilEpochDay(year, month, day) * DAY + timeOfDay;
+        return offsets.isSteady(wall - 2 * DAY, wall + 2 * DAY);
+    }
+
+    /**
+     * Count the days from 1970-01-01 to a date, on the Julian calendar before the Gregorian
+     * cutover, as GregorianCalendar reckons it.
+     *
+     * @param year  calendar year (astronomical, so 1 BC is year 0)
+     * @param month calendar month, Jan=1
+     * @param day   calendar day
+     * @return days since epoch, negative for earlier dates
+     */
+    static long civilEpochDay(int year, int month, int day) {
+        if (year < GREGORIAN_CUTOVER_YEAR) {
+            return julianEpochDay(year, month, day);
+        }
+        long epochDay = epochDay(year, month, day);
+        return epochDay < GREGORIAN_CUTOVER_DAY ? julianEpochDay(year, month, day) : epochDay;
+    }
+
+    /**
+     * As with GregorianCalendar, a day past the end of a month in the year of the Gregorian
+     * cutover, of either era, rolls into the next month rather than being moved back.
+     *
+     * @param year calendar year (astronomical, so 1 BC is year 0)
+     * @return True if a day past the end of a month of the year is moved back to its last day
+     */
+    private static boolean isPinned(int year) {
+        return year != GREGORIAN_CUTOVER_YEAR && year != 1 - GREGORIAN_CUTOVER_YEAR;
+    }
+
+    /**
+     * @param year  calendar year (astronomical, so 1 BC is year 0)
+     * @param month calendar month, Jan=1
+     * @return Number of days in the month, on the Julian calendar before 1582
+     */
+    static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = year % 4 == 0 && (year < GREGORIAN_CUTOVER_YEAR || year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * Count the days from 1970-01-01 to a date on the proleptic Julian calendar.
+     *
+     * @param year  calendar year (astronomical, so 1 BC is year 0)
+     * @param month calendar month, Jan=1
+     * @param day   calendar day
+     * @return days since epoch, negative for earlier dates
+     */
+    static long julianEpochDay(int year, int month, int day) {
+        long y = month > 2 ? year : year - 1L;
+        long quadYears = floorDiv(y, 4);
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        return quadYears * 1461 + (y - quadYears * 4) * 365 + dayOfYear - 719470;
+    }
+
+    private static long floorDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        if (dividend % divisor < 0) {
+            quotient--;
+        }
+        return quotient;
     }
 
     /**
@@ -0,0 +1,168 @@
+package org.pojava.datetime;
+
+import java.util.TimeZone;
+
+/**
+ * TmBatch breaks a whole column of timestamps into columns of their parts, as a Tm would
+ * one at a time. The timestamps are taken in runs that share a time zone offset, and each run
+ * is decomposed in a tight loop of integer arithmetic, with nothing allocated per timestamp.
+ * Timestamps in order, or nearly so, make for long runs.
+ * <pre>
+ * int[] hours = new int[millis.length];
+ * TmBatch.decompose(millis, tz, null, null, null, hours, null);
+ * </pre>
+ * <p>
+ * As with Tm, dates before October 15, 1582 are reckoned on the Julian calendar.
+ * </p>
+ *
+ * @author John Pile
+ */
+public final class TmBatch {
+
+    private static final long DAY = 86400000L;
+    private static final int HOUR = 3600000;
+
+    private TmBatch() {
+        // Static methods only
+    }
+
+    /**
+     * Fill columns of year, month, day, hour and weekday from a column of timestamps. Any
+     * column that is not wanted may be null.
+     *
+     * @param millis   Millis since epoch
+     * @param tz       TimeZone under which the parts are represented, or null for the default
+     *                 output time zone
+     * @param years    Year of each timestamp, as Tm.getYear
+     * @param months   Month of each timestamp, Jan=1
+     * @param days     Day of month of each timestamp
+     * @param hours    Hour of day of each timestamp
+     * @param weekdays Day of week of each timestamp, usually Sun=1 .. Sat=7. See DateTimeConfig.
+     */
+    public static void decompose(long[] millis, TimeZone tz, int[] years, int[] months, int[] days, int[] hours,
+                                 int[] weekdays) {
+        decompose(millis, 0, millis.length, tz, years, months, days, hours, weekdays);
+    }
+
+    /**
+     * Fill columns of year, month, day, hour and weekday from part of a column of timestamps.
+     * Each part is written at the same index as its timestamp. Any column that is not wanted
+     * may be null.
+     *
+     * @param millis   Millis since epoch
+     * @param from     Index of the first timestamp
+     * @param to       Index just past the last timestamp
+     * @param tz       TimeZone under which the parts are represented, or null for the default
+     *                 output time zone
+     * @param years    Year of each timestamp, as Tm.getYear
+     * @param months   Month of each timestamp, Jan=1
+     * @param days     Day of month of each timestamp
+     * @param hours    Hour of day of each timestamp
+     * @param weekdays Day of week of each timestamp, usually Sun=1 .. Sat=7. See DateTimeConfig.
+     */
+    public static void decompose(long[] millis, int from, int to, TimeZone tz, int[] years, int[] months,
+                                 int[] days, int[] hours, int[] weekdays) {
+        if (from < 0 || to > millis.length || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is not within 0 to "
+                    + millis.length + ".");
+        }
+        checkColumn(years, to);
+        checkColumn(months, to);
+        checkColumn(days, to);
+        checkColumn(hours, to);
+        checkColumn(weekdays, to);
+        if (tz == null) {
+            tz = DateTimeConfig.getGlobalDefault().getOutputTimeZone();
+        }
+        ZoneOffsets offsets = ZoneOffsets.of(tz);
+        int epochDOW = DateTimeConfig.getGlobalDefault().getEpochDOW();
+        int i = from;
+        while (i < to) {
+            ZoneOffsets.Span span = offsets.span(millis[i]);
+            if (span == null) {
+                // Outside the table of offsets, one at a time
+                decompose(millis, i, i + 1, tz.getOffset(millis[i]), epochDOW, tz, years, months, days, hours,
+                        weekdays);
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < to && millis[end] >= span.start && millis[end] < span.end) {
+                end++;
+            }
+            decompose(millis, i, end, span.offset, epochDOW, tz, years, months, days, hours, weekdays);
+            i = end;
+        }
+    }
+
+    /**
+     * Decompose a run of timestamps sharing one offset.
+     */
+    private static void decompose(long[] millis, int from, int to, int offset, int epochDOW, TimeZone tz,
+                                  int[] years, int[] months, int[] days, int[] hours, int[] weekdays) {
+        Tm tm = null;
+        for (int i = from; i < to; i++) {
+            // Split into days and time of day first, so that no instant overflows.
+            long epochDay = millis[i] / DAY;
+            long timeOfDay = millis[i] - epochDay * DAY + offset;
+            while (timeOfDay < 0) {
+                epochDay--;
+                timeOfDay += DAY;
+            }
+            while (timeOfDay >= DAY) {
+                epochDay++;
+                timeOfDay -= DAY;
+            }
+            if (epochDay < Tm.GREGORIAN_CUTOVER_DAY) {
+                // Julian dates are left to Tm.
+                if (tm == null) {
+                    tm = new Tm();
+                }
+                tm.set(millis[i], tz);
+                set(years, i, tm.getYear());
+                set(months, i, tm.getMonth());
+                set(days, i, tm.getDay());
+                set(hours, i, tm.getHour());
+                set(weekdays, i, tm.getWeekday());
+                continue;
+            }
+            // Count from March 1 of year 0, so that a leap day is always at the end of a year.
+            long shifted = epochDay + 719468;
+            long era = shifted / 146097;
+            int dayOfEra = (int) (shifted - era * 146097);
+            int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            int marchMonth = (5 * dayOfYear + 2) / 153;
+            int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+            if (years != null) {
+                years[i] = (int) (era * 400) + yearOfEra + (month <= 2 ? 1 : 0);
+            }
+            if (months != null) {
+                months[i] = month;
+            }
+            if (days != null) {
+                days[i] = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+            }
+            if (hours != null) {
+                hours[i] = (int) timeOfDay / HOUR;
+            }
+            if (weekdays != null) {
+                int weekday = (int) ((epochDay + epochDOW) % 7);
+                weekdays[i] = weekday < 0 ? weekday + 8 : weekday + 1;
+            }
+        }
+    }
+
+    private static void set(int[] column, int index, int value) {
+        if (column != null) {
+            column[index] = value;
+        }
+    }
+
+    private static void checkColumn(int[] column, int to) {
+        if (column != null && column.length < to) {
+            throw new IllegalArgumentException("Column of " + column.length + " is too short for " + to
+                    + " timestamps.");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.pojava.datetime;
+
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ZoneOffsets answers TimeZone.getOffset(millis) from a table of the transitions of a zone,
+ * built once and shared by every equal TimeZone. A lookup is a binary search of the table.
+ * Callers walking a column of timestamps may keep the span of their last answer, so that
+ * instants near one another seldom need more than a comparison or two.
+ * <p>
+ * Tables cover 1900 through 2099, and for zones that no longer observe daylight saving, all
+ * time after their last transition. Instants outside a table, and zones other than the JDK's
+ * own, are passed on to TimeZone.getOffset. Each table is checked against TimeZone.getOffset
+ * at every transition as it is built, and a zone whose table disagrees is not tabled at all.
+ * </p>
+ * <p>
+ * Zones are matched by equality, so a TimeZone should not be modified once it has been used.
+ * </p>
+ *
+ * @author John Pile
+ */
+public final class ZoneOffsets {
+
+    private static final String ZONE_INFO_CLASS = "sun.util.calendar.ZoneInfo";
+    private static final long TABLE_START = -2208988800000L; // 1900-01-01T00:00:00Z
+    private static final long TABLE_END = 4102444800000L; // 2100-01-01T00:00:00Z
+
+    private static final ConcurrentMap<TimeZone, ZoneOffsets> BY_ZONE = new ConcurrentHashMap<TimeZone, ZoneOffsets>();
+
+    /**
+     * A private copy of the zone, for instants outside the table
+     */
+    private final TimeZone zone;
+    /**
+     * Start of each span of constant offset, ascending, or null if the zone is not tabled
+     */
+    private final long[] transitions;
+    /**
+     * Offset in milliseconds over each span
+     */
+    private final int[] offsets;
+    /**
+     * Instants from min (inclusive) to max (exclusive) are covered by the table
+     */
+    private final long min;
+    private final long max;
+
+    private ZoneOffsets(TimeZone zone, long[] transitions, int[] offsets, long min, long max) {
+        this.zone = zone;
+        this.transitions = transitions;
+        this.offsets = offsets;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @param tz Time zone
+     * @return Offsets of the time zone, shared by every TimeZone equal to it
+     */
+    public static ZoneOffsets of(TimeZone tz) {
+        ZoneOffsets offsets = BY_ZONE.get(tz);
+        if (offsets == null) {
+            offsets = build((TimeZone) tz.clone());
+            ZoneOffsets existing = BY_ZONE.putIfAbsent(offsets.zone, offsets);
+            if (existing != null) {
+                offsets = existing;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * @param tz     Time zone
+     * @param millis Milliseconds since epoch
+     * @return Offset of the time zone from UTC in milliseconds, as TimeZone.getOffset(millis)
+     */
+    public static int getOffset(TimeZone tz, long millis) {
+        return of(tz).getOffset(millis);
+    }
+
+    /**
+     * @param millis Milliseconds since epoch
+     * @return Offset from UTC in milliseconds, as TimeZone.getOffset(millis)
+     */
+    public int getOffset(long millis) {
+        int index = indexOf(millis);
+        return index < 0 ? zone.getOffset(millis) : offsets[index];
+    }
+
+    /**
+     * @param millis Milliseconds since epoch
+     * @return The span of constant offset holding the instant, or null if it is not tabled
+     */
+    Span span(long millis) {
+        int index = indexOf(millis);
+        return index < 0 ? null : spanAt(index);
+    }
+
+    /**
+     * @param start First instant
+     * @param end   Last instant
+     * @return True if the table shows one offset over the whole of the time between
+     */
+    boolean isSteady(long start, long end) {
+        int index = indexOf(start);
+        return index >= 0 && (index + 1 < transitions.length ? end < transitions[index + 1] : end < max);
+    }
+
+    /**
+     * @return Index of the span holding the instant, or -1 if it is not tabled
+     */
+    private int indexOf(long millis) {
+        if (transitions == null || millis < min || millis >= max) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(transitions, millis);
+        return index < 0 ? -index - 2 : index;
+    }
+
+    /**
+     * @return True if offsets come from a table, rather than from the zone itself
+     */
+    public boolean isTabled() {
+        return transitions != null;
+    }
+
+    private Span spanAt(int index) {
+        long start = index == 0 ? min : transitions[index];
+        long end = index + 1 < transitions.length ? transitions[index + 1] : max;
+        return new Span(start, end, offsets[index]);
+    }
+
+    private static ZoneOffsets build(TimeZone tz) {
+        if (!ZONE_INFO_CLASS.equals(tz.getClass().getName())) {
+            return new ZoneOffsets(tz, null, null, 0, 0);
+        }
+        ZoneRules rules;
+        try {
+            rules = tz.toZoneId().getRules();
+        } catch (RuntimeException ex) {
+            // An id unknown to java.time
+            return new ZoneOffsets(tz, null, null, 0, 0);
+        }
+        long[] transitions = new long[16];
+        int[] offsets = new int[16];
+        int count = 1;
+        transitions[0] = TABLE_START;
+        offsets[0] = rules.getOffset(Instant.ofEpochMilli(TABLE_START)).getTotalSeconds() * 1000;
+        ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(TABLE_START));
+        while (next != null && next.toEpochSecond() * 1000 < TABLE_END) {
+            if (count == transitions.length) {
+                transitions = Arrays.copyOf(transitions, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            transitions[count] = next.toEpochSecond() * 1000;
+            offsets[count] = next.getOffsetAfter().getTotalSeconds() * 1000;
+            count++;
+            next = rules.nextTransition(next.getInstant());
+        }
+        long min = rules.isFixedOffset() ? Long.MIN_VALUE : TABLE_START;
+        // Without rules for the future, the last offset holds forever.
+        long max = rules.getTransitionRules().isEmpty() && next == null ? Long.MAX_VALUE : TABLE_END;
+        ZoneOffsets table = new ZoneOffsets(tz, Arrays.copyOf(transitions, count), Arrays.copyOf(offsets, count),
+                min, max);
+        for (int i = 0; i < count; i++) {
+            Span span = table.spanAt(i);
+            long end = Math.min(span.end, TABLE_END);
+            long start = Math.max(span.start, TABLE_START);
+            if (tz.getOffset(start) != span.offset || tz.getOffset(end - 1) != span.offset
+                    || tz.getOffset(start + (end - start) / 2) != span.offset) {
+                return new ZoneOffsets(tz, null, null, 0, 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * A span of time over which the offset is constant.
+     */
+    static final class Span {
+        /**
+         * First instant of the span
+         */
+        final long start;
+        /**
+         * First instant after the span
+         */
+        final long end;
+        /**
+         * Offset in milliseconds over the span
+         */
+        final int offset;
+
+        private Span(long start, long end, int offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class AdaptiveDateTimeParserTester extends TestCase {
+
+    private final IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+
+    private void assertSameAsParse(AdaptiveDateTimeParser parser, String str) {
+        Long expected = null;
+        try {
+            expected = DateTime.parseToMillis(str, config);
+        } catch (IllegalArgumentException ex) {
+            // Expected of the adaptive parser too
+        }
+        try {
+            long millis = parser.parseToMillis(str);
+            assertEquals(str, expected, Long.valueOf(millis));
+            assertEquals(str, DateTime.parse(str, config).getNanos(), parser.parse(str).getNanos());
+        } catch (IllegalArgumentException ex) {
+            assertNull(str + " threw " + ex.getMessage(), expected);
+        }
+    }
+
+    /**
+     * Learned layouts give the same results as the heuristics.
+     */
+    public void testMatchesParse() {
+        String[] templates = {"MMM d, yyyy h:mm:ss a", "yyyy/MM/dd HH:mm:ss", "d MMMM yyyy HH:mm",
+                "EEE, dd MMM yyyy HH:mm:ss z", "MM/dd/yyyy HH:mm:ss.SSS", "dd MMM yyyy HH:mm:ss Z",
+                "yyyy-MM-dd HH:mm:ss zzz", "MMM dd HH:mm:ss", "dd.MM.yyyy HH:mm", "d MMMM yyyy"};
+        TimeZone[] zones = {TimeZone.getTimeZone("UTC"), TimeZone.getTimeZone("America/Los_Angeles"),
+                TimeZone.getTimeZone("Asia/Kolkata")};
+        Random random = new Random(15);
+        for (String template : templates) {
+            for (TimeZone zone : zones) {
+                AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+                for (int i = 0; i < 150; i++) {
+                    long millis = 946684800000L + (long) (random.nextDouble() * 1000000000000L);
+                    if (template.indexOf('y') < 0) {
+                        // No year, so this year is assumed.
+                        millis = config.systemTime() - (long) (random.nextDouble() * 100 * Duration.DAY);
+                    }
+                    assertSameAsParse(parser, DateTimeFormat.format(template, new DateTime(millis), zone,
+                            Locale.ENGLISH));
+                }
+                assertEquals(template, 1, parser.layoutCount());
+            }
+        }
+    }
+
+    /**
+     * A layout learned from one string reads other strings of its shape as the heuristics do,
+     * whatever their numeric offsets.
+     */
+    public void testLearnOneParseAnother() {
+        String[] templates = {"dd MMM yyyy HH:mm:ss", "EEE, d MMM yyyy HH:mm:ss", "MM/dd/yyyy HH:mm"};
+        Random random = new Random(151);
+        for (int i = 0; i < 600; i++) {
+            String template = templates[i % templates.length];
+            boolean colon = i % 2 == 0;
+            AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+            assertSameAsParse(parser, withOffset(template, random, colon, random.nextInt(2) * 30));
+            assertSameAsParse(parser, withOffset(template, random, colon, random.nextInt(60)));
+        }
+        AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "22 Aug 2004 21:05:41 +0530");
+        assertEquals(1, parser.layoutCount());
+        assertSameAsParse(parser, "22 Aug 2004 21:05:41 +0545");
+        assertSameAsParse(parser, "22 Aug 2004 21:05:41 +0521");
+        assertSameAsParse(parser, "22 Aug 2004 21:05:41 -0340");
+    }
+
+    /**
+     * Words the heuristics read more than one way, such as EST, also the name of a month, are
+     * left to them, even in a shape learned from a word they read only one way.
+     */
+    public void testWordsReadTwoWays() {
+        AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "2420-10-27 19:30:42 Z");
+        assertEquals(1, parser.layoutCount());
+        assertSameAsParse(parser, "2044-04-27 01:25:40 EST");
+        assertSameAsParse(parser, "2044-04-12 01:25:40 EST");
+        assertSameAsParse(parser, "2044-04-12 01:25:40 PST");
+        parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "1863-04-10 Iran");
+        assertSameAsParse(parser, "2287-06-21 EST");
+        assertSameAsParse(parser, "2287-06-21 XYZ");
+        assertSameAsParse(parser, "2254-07-27 BC");
+        parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "Mon Oct 3 19:53:40 UCT");
+        assertSameAsParse(parser, "Wed Apr 29 03:28:02 PST");
+        assertSameAsParse(parser, "Sat Dec 1 03:23:27 CTT");
+    }
+
+    private String withOffset(String template, Random random, boolean colon, int minutes) {
+        long millis = 946684800000L + (long) (random.nextDouble() * 1000000000000L);
+        int hours = random.nextInt(15);
+        return DateTimeFormat.format(template, new DateTime(millis), TimeZone.getTimeZone("UTC"), Locale.ENGLISH)
+                + (random.nextBoolean() ? " +" : " -") + (hours < 10 ? "0" : "") + hours + (colon ? ":" : "")
+                + (minutes < 10 ? "0" : "") + minutes;
+    }
+
+    /**
+     * Learning waits for a string in which the day and month can be told apart.
+     */
+    public void testAmbiguousDayAndMonth() {
+        AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "01/01/2024 10:30");
+        assertSameAsParse(parser, "05/05/2024 10:30");
+        assertEquals(0, parser.layoutCount());
+        assertSameAsParse(parser, "05/13/2024 10:30");
+        assertEquals(1, parser.layoutCount());
+        assertSameAsParse(parser, "03/07/2024 10:30");
+        assertSameAsParse(parser, "12/31/1999 23:59");
+        assertEquals(1, parser.layoutCount());
+    }
+
+    /**
+     * Strings of a learned shape that do not fit the layout are left to the heuristics.
+     */
+    public void testFallsBackOnMismatch() {
+        AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+        assertSameAsParse(parser, "Jan 15, 2024 10:30 PM");
+        assertEquals(1, parser.layoutCount());
+        String[] samples = {"Jan 15, 2024 10:30 AM", "Feb 30, 2024 10:30 PM", "Jan 15, 2024 25:30 PM",
+                "Foo 15, 2024 10:30 PM", "Jan 15, 2024 12:30 AM", "Dec 31, 1999 12:00 PM", "Mar 10, 2024 02:30 AM"};
+        for (String sample : samples) {
+            assertSameAsParse(parser, sample);
+        }
+        assertSameAsParse(parser, "15 Jan 2024 10:30:00 -0800");
+        assertSameAsParse(parser, "15 Jan 2024 10:30:00 +0100");
+        assertSameAsParse(parser, "15 Jan 2024 10:30:00 +9999");
+        assertSameAsParse(parser, "2024-01-15T10:30:00Z");
+    }
+
+    /**
+     * A feed of one shape is read through a single layout. Timings are left to the benchmarks.
+     */
+    public void testOneLayoutPerFeed() {
+        AdaptiveDateTimeParser parser = new AdaptiveDateTimeParser(config);
+        String[] samples = new String[500];
+        Random random = new Random(16);
+        for (int i = 0; i < samples.length; i++) {
+            long millis = 946684800000L + (long) (random.nextDouble() * 1000000000000L);
+            samples[i] = DateTimeFormat.format("MMM d, yyyy h:mm:ss a", new DateTime(millis),
+                    TimeZone.getTimeZone("UTC"), Locale.ENGLISH);
+        }
+        long checksum = 0;
+        for (int rep = 0; rep < 4; rep++) {
+            for (String sample : samples) {
+                checksum += parser.parseToMillis(sample) - DateTime.parseToMillis(sample, config);
+            }
+        }
+        assertEquals(0, checksum);
+        assertEquals(1, parser.layoutCount());
+    }
+}
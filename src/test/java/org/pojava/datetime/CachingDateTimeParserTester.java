@@ -0,0 +1,101 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.util.TimeZone;
+
+public class CachingDateTimeParserTester extends TestCase {
+
+    private final IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+
+    public void testHitsAndMisses() {
+        CachingDateTimeParser parser = new CachingDateTimeParser(config, 100, Duration.HOUR);
+        String[] samples = {"Jan 15 10:30:00 2024", "2024-01-15T10:30:00.123Z", "Jan 15, 2024 10:30 PM PST",
+                "15 Jan 1969 23:59:59.999"};
+        for (int rep = 0; rep < 3; rep++) {
+            for (String sample : samples) {
+                DateTime expected = DateTime.parse(sample, config);
+                assertEquals(sample, expected.toMillis(), parser.parseToMillis(sample));
+                DateTime dt = parser.parse(sample);
+                assertEquals(sample, expected.toMillis(), dt.toMillis());
+                assertEquals(sample, expected.getNanos(), dt.getNanos());
+            }
+        }
+        assertEquals(samples.length, parser.getMisses());
+        assertEquals(samples.length * 5, parser.getHits());
+        assertEquals(samples.length, parser.size());
+        // A CharSequence other than a String finds the same entry.
+        parser.parseToMillis(new StringBuilder(samples[0]));
+        assertEquals(samples.length * 5 + 1, parser.getHits());
+    }
+
+    /**
+     * The same string is kept apart under each config.
+     */
+    public void testConfigIdentity() {
+        CachingDateTimeParser parser = new CachingDateTimeParser(config, 100, Duration.HOUR);
+        IDateTimeConfig tokyo = LocalConfig.instanceOverridingTimeZones(config,
+                TimeZone.getTimeZone("Asia/Tokyo"), TimeZone.getTimeZone("Asia/Tokyo"));
+        String sample = "2024-01-15 10:30:00";
+        assertEquals(DateTime.parseToMillis(sample, config), parser.parseToMillis(sample));
+        assertEquals(DateTime.parseToMillis(sample, tokyo), parser.parseToMillis(sample, tokyo));
+        assertEquals(2, parser.getMisses());
+        assertEquals(2, parser.size());
+    }
+
+    public void testLeastRecentlyUsedEviction() {
+        // One entry per segment, so that each string evicts whatever it collides with.
+        CachingDateTimeParser parser = new CachingDateTimeParser(config, 16, Duration.HOUR);
+        for (int day = 1; day <= 28; day++) {
+            parser.parseToMillis("2024-02-" + (day < 10 ? "0" : "") + day);
+        }
+        assertTrue(parser.size() <= 16);
+        parser.clear();
+        assertEquals(0, parser.size());
+        assertEquals(28, parser.getMisses());
+    }
+
+    public void testTimeToLive() throws InterruptedException {
+        CachingDateTimeParser parser = new CachingDateTimeParser(config, 100, 1);
+        parser.parseToMillis("2024-01-15");
+        Thread.sleep(5);
+        parser.parseToMillis("2024-01-15");
+        assertEquals(2, parser.getMisses());
+        assertEquals(0, parser.getHits());
+    }
+
+    /**
+     * Relative dates and failures are never cached.
+     */
+    public void testNotCached() {
+        CachingDateTimeParser parser = new CachingDateTimeParser(config, 100, Duration.HOUR);
+        parser.parse("+3");
+        parser.parse("-2M");
+        parser.parse("1Y");
+        for (int i = 0; i < 2; i++) {
+            try {
+                parser.parseToMillis("not a date");
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+        assertEquals(0, parser.size());
+        assertEquals(0, parser.getHits());
+    }
+
+    public void testInvalidBounds() {
+        try {
+            new CachingDateTimeParser(config, 0, Duration.HOUR);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+        try {
+            new CachingDateTimeParser(config, 10, 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+}
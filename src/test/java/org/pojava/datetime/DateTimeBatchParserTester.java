@@ -0,0 +1,146 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class DateTimeBatchParserTester extends TestCase {
+
+    private final IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+
+    private List<String> dates(int count) {
+        String[] templates = {"yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "MMM d, yyyy h:mm:ss a", "yyyy/MM/dd HH:mm:ss",
+                "d MMMM yyyy HH:mm"};
+        Random random = new Random(14);
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        List<String> dates = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            long millis = 946684800000L + (long) (random.nextDouble() * 1000000000000L);
+            dates.add(DateTimeFormat.format(templates[i % templates.length], new DateTime(millis), utc,
+                    Locale.ENGLISH));
+        }
+        return dates;
+    }
+
+    /**
+     * Results arrive in order, matching a serial parse.
+     */
+    public void testMatchesSerialParse() {
+        List<String> dates = dates(10000);
+        DateTimeBatchParser batch = new DateTimeBatchParser(config, 4);
+        try {
+            long[] millis = batch.parseToMillis(dates);
+            assertEquals(dates.size(), millis.length);
+            for (int i = 0; i < millis.length; i++) {
+                assertEquals(dates.get(i), DateTime.parseToMillis(dates.get(i), config), millis[i]);
+            }
+            long[] again = batch.parseToMillis(dates.toArray(new String[dates.size()]));
+            assertTrue(java.util.Arrays.equals(millis, again));
+            again = batch.parseToMillis(new LinkedList<String>(dates));
+            assertTrue(java.util.Arrays.equals(millis, again));
+        } finally {
+            batch.shutdown();
+        }
+    }
+
+    /**
+     * Dates that cannot be parsed are marked, one bit apiece.
+     */
+    public void testErrors() {
+        List<String> dates = dates(5000);
+        int[] bad = {0, 63, 64, 1023, 1024, 2047, 4999};
+        for (int index : bad) {
+            dates.set(index, index % 2 == 0 ? "not a date" : null);
+        }
+        DateTimeBatchParser batch = new DateTimeBatchParser(config, 3);
+        try {
+            long[] millis = new long[dates.size()];
+            long[] errors = new long[(dates.size() + 63) / 64];
+            java.util.Arrays.fill(errors, -1L);
+            assertEquals(bad.length, batch.parseToMillis(dates, millis, errors));
+            for (int i = 0; i < dates.size(); i++) {
+                boolean isBad = (errors[i / 64] & 1L << (i % 64)) != 0;
+                assertEquals(String.valueOf(i), java.util.Arrays.binarySearch(bad, i) >= 0, isBad);
+                if (isBad) {
+                    assertEquals(0, millis[i]);
+                }
+            }
+            try {
+                batch.parseToMillis(dates.subList(1, dates.size()));
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Null date at index 62"));
+            }
+            try {
+                batch.parseToMillis(dates);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Could not parse date at index 0:"));
+            }
+        } finally {
+            batch.shutdown();
+        }
+    }
+
+    /**
+     * Changes to the config once a batch has begun do not reach it.
+     */
+    public void testSnapshot() {
+        final MonthMap monthMap = MonthMap.fromAllLocales();
+        DateTimeConfig base = DateTimeConfig.fromBuilder(DateTimeConfigBuilder.newInstance().monthMap(monthMap)
+                .inputTimeZone(TimeZone.getTimeZone("UTC")));
+        final int[] calls = {0};
+        // Day first for the first question only
+        IDateTimeConfig fickle = new LocalConfig(base, base.getInputTimeZone(), base.getOutputTimeZone()) {
+            @Override
+            public boolean isDmyOrder() {
+                return calls[0]++ == 0;
+            }
+        };
+        List<String> dates = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                // A month added while the batch is under way
+                monthMap.addMonth("QQQ", 3);
+                return index % 2 == 0 ? "02/01/2000" : "QQQ 5, 2000";
+            }
+
+            @Override
+            public int size() {
+                return 3000;
+            }
+        };
+        long[] millis = new long[dates.size()];
+        long[] errors = new long[(dates.size() + 63) / 64];
+        DateTimeBatchParser batch = new DateTimeBatchParser(base, 3);
+        try {
+            assertEquals(dates.size() / 2, batch.parseToMillis(dates, millis, errors));
+        } finally {
+            batch.shutdown();
+        }
+        batch = new DateTimeBatchParser(fickle, 3);
+        try {
+            batch.parseToMillis(dates, millis, errors);
+            for (int i = 0; i < millis.length; i += 2) {
+                assertEquals(946771200000L, millis[i]);
+            }
+        } finally {
+            batch.shutdown();
+        }
+    }
+
+    public void testEmpty() {
+        DateTimeBatchParser batch = new DateTimeBatchParser(config, 2);
+        try {
+            assertEquals(0, batch.parseToMillis(new ArrayList<String>()).length);
+        } finally {
+            batch.shutdown();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DateTimeBulkParserTester extends TestCase {
+
+    private final IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+
+    /**
+     * Collects every result, checking that chunks arrive in order.
+     */
+    private static class Collector implements DateTimeBulkParser.ChunkHandler {
+        final List<Long> millis = new ArrayList<Long>();
+        final List<Integer> nanos = new ArrayList<Integer>();
+        final List<Integer> errors = new ArrayList<Integer>();
+        int chunks;
+
+        public void handle(DateTimeBulkParser.Chunk chunk) {
+            assertEquals(millis.size(), chunk.getFirstRecord());
+            int errorCount = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunk.isError(i)) {
+                    errors.add(millis.size());
+                    errorCount++;
+                }
+                millis.add(chunk.getMillis()[i]);
+                nanos.add(chunk.getNanos()[i]);
+            }
+            assertEquals(errorCount, chunk.errorCount());
+            chunks++;
+        }
+    }
+
+    private Collector parse(String text, char delimiter, int column, int capacity) throws IOException {
+        return parse(text, "US-ASCII", delimiter, column, capacity);
+    }
+
+    private Collector parse(String text, String charset, char delimiter, int column, int capacity)
+            throws IOException {
+        DateTimeBulkParser parser = new DateTimeBulkParser(config, delimiter, column);
+        Collector collector = new Collector();
+        long records = parser.parse(Channels.newChannel(new ByteArrayInputStream(text.getBytes(charset))),
+                new DateTimeBulkParser.Chunk(capacity), collector);
+        assertEquals(records, collector.millis.size());
+        return collector;
+    }
+
+    public void testColumn() throws Exception {
+        String text = "id,when,what\n"
+                + "1,2024-05-01T12:34:56.789Z,start\n"
+                + "2,\"May 1, 2024 12:34:56 PM\",quoted\n"
+                + "3, 2024-05-01 12:34:56.123456789 ,padded\r\n"
+                + "4\n"
+                + "\n"
+                + "6,,empty\n"
+                + "7,1 janvier 2024";
+        Collector collector = parse(text, ',', 1, 3);
+        assertEquals(8, collector.millis.size());
+        assertEquals(3, collector.chunks);
+        assertEquals(DateTime.parseToMillis("2024-05-01T12:34:56.789Z", config), collector.millis.get(1).longValue());
+        assertEquals(DateTime.parseToMillis("May 1, 2024 12:34:56 PM", config), collector.millis.get(2).longValue());
+        assertEquals(DateTime.parseToMillis("2024-05-01 12:34:56.123", config), collector.millis.get(3).longValue());
+        assertEquals(123456789, collector.nanos.get(3).intValue());
+        assertEquals(DateTime.parseToMillis("1 janvier 2024", config), collector.millis.get(7).longValue());
+        // Header, missing column, blank line and empty field
+        assertEquals("[0, 4, 5, 6]", collector.errors.toString());
+    }
+
+    public void testLastColumnAndTabs() throws Exception {
+        Collector collector = parse("a\tb\t2024-05-01\na\tb\t2024-05-02\n", '\t', 2, 100);
+        assertEquals(2, collector.millis.size());
+        assertEquals(1, collector.chunks);
+        assertEquals(Duration.DAY, collector.millis.get(1) - collector.millis.get(0));
+        assertTrue(collector.errors.isEmpty());
+    }
+
+    /**
+     * Bytes above 0x7F at either end of a field are part of it, not whitespace.
+     */
+    public void testHighBytesAtFieldEdges() throws Exception {
+        Collector collector = parse("1,2024 1 ma\u00ed\n2,\u00e92024-05-01\n", "ISO-8859-1", ',', 1, 10);
+        assertEquals(2, collector.millis.size());
+        assertEquals(DateTime.parseToMillis("2024 1 ma\u00ed", config), collector.millis.get(0).longValue());
+        assertEquals("[1]", collector.errors.toString());
+    }
+
+    /**
+     * Lines longer than the read buffer are assembled whole.
+     */
+    public void testLongLines() throws Exception {
+        StringBuilder text = new StringBuilder();
+        char[] filler = new char[100000];
+        java.util.Arrays.fill(filler, 'x');
+        for (int i = 0; i < 5; i++) {
+            text.append(filler).append('|').append("2024-05-0").append(i + 1).append("T00:00:00Z\n");
+        }
+        Collector collector = parse(text.toString(), '|', 1, 2);
+        assertEquals(5, collector.millis.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(DateTime.parseToMillis("2024-05-0" + (i + 1) + "T00:00:00Z", config),
+                    collector.millis.get(i).longValue());
+        }
+    }
+
+    /**
+     * A memory-mapped file yields the same results as a channel.
+     */
+    public void testFile() throws Exception {
+        StringBuilder text = new StringBuilder();
+        long base = DateTime.parseToMillis("2024-01-01T00:00:00Z", config);
+        for (int i = 0; i < 20000; i++) {
+            String date = DateTimeFormat.format("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", new DateTime(base + i * 997L),
+                    java.util.TimeZone.getTimeZone("UTC"));
+            text.append(i).append(';').append(i % 1000 == 0 ? "bad" : date).append('\n');
+        }
+        File file = File.createTempFile("bulk", ".csv");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(text.toString().getBytes("US-ASCII"));
+            } finally {
+                out.close();
+            }
+            DateTimeBulkParser parser = new DateTimeBulkParser(config, ';', 1);
+            Collector collector = new Collector();
+            assertEquals(20000, parser.parse(file, new DateTimeBulkParser.Chunk(4096), collector));
+            assertEquals(5, collector.chunks);
+            assertEquals(20, collector.errors.size());
+            for (int i = 0; i < 20000; i++) {
+                if (i % 1000 != 0) {
+                    assertEquals(base + i * 997L, collector.millis.get(i).longValue());
+                }
+            }
+            assertEquals(collector.millis, parse(text.toString(), ';', 1, 4096).millis);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testInvalidArguments() {
+        try {
+            new DateTimeBulkParser(config, '\n', 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+        try {
+            new DateTimeBulkParser(config, ',', -1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+        try {
+            new DateTimeBulkParser.Chunk(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+}
@@ -2,6 +2,9 @@ package org.pojava.datetime;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.TimeZone;
 
 public class DateTimeConfigTester extends TestCase {
@@ -116,4 +119,71 @@ public class DateTimeConfigTester extends TestCase {
         assertFalse(new DateTime(longYearDate).toString().equals(new DateTime(shortYearDate).toString()));
     }
 
+    public void testLookupTimeZone() {
+        DateTimeConfig dtc = DateTimeConfig.fromBuilder(configBuilder());
+        TimeZone tokyo = dtc.lookupTimeZone("Asia/Tokyo");
+        assertEquals("Asia/Tokyo", tokyo.getID());
+        assertSame(tokyo, dtc.lookupTimeZone("Asia/Tokyo"));
+        assertEquals("UTC", dtc.lookupTimeZone("UTC").getID());
+        // Unknown ids fall back to whichever default is asked for, every time.
+        TimeZone pst = TimeZone.getTimeZone("PST");
+        assertEquals("IST", dtc.lookupTimeZone("Nowhere/Special").getID());
+        assertSame(pst, dtc.lookupTimeZone("Nowhere/Special", pst));
+        assertEquals("IST", dtc.lookupTimeZone("Nowhere/Special").getID());
+    }
+
+    public void testLookupTimeZoneConcurrently() throws Exception {
+        final DateTimeConfig dtc = DateTimeConfig.fromBuilder(configBuilder());
+        final String[] ids = TimeZone.getAvailableIDs();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < ids.length * 2; i++) {
+                            String id = ids[(i + offset * 37) % ids.length];
+                            TimeZone tz = dtc.lookupTimeZone(id);
+                            if (!id.equals(tz.getID()) && !"GMT".equals(tz.getID())) {
+                                throw new AssertionError(id + " resolved to " + tz.getID());
+                            }
+                            dtc.lookupTimeZone("Bogus/" + (i % 50));
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    /**
+     * Numeric offsets resolve to shared fixed offset zones.
+     */
+    public void testLookupFixedOffsetZone() {
+        DateTimeConfig dtc = DateTimeConfig.fromBuilder(configBuilder());
+        TimeZone tz = dtc.lookupTimeZone("GMT+05:30");
+        assertEquals("GMT+05:30", tz.getID());
+        assertEquals(19800000, tz.getRawOffset());
+        assertSame(tz, FixedOffsetZones.forSeconds(19800));
+        assertSame(tz, dtc.lookupTimeZone("GMT+05:30"));
+        assertEquals("GMT-00:00", dtc.lookupTimeZone("GMT-00:00").getID());
+        TimeZone odd = FixedOffsetZones.forSeconds(-(7 * 3600 + 13 * 60));
+        assertEquals("GMT-07:13", odd.getID());
+        assertSame(odd, FixedOffsetZones.forSeconds(-(7 * 3600 + 13 * 60)));
+        TimeZone seconds = FixedOffsetZones.forSeconds(4 * 3600 + 30 * 60 + 15);
+        assertEquals("GMT+04:30:15", seconds.getID());
+        assertEquals(16215000, seconds.getOffset(0L));
+        assertNull(FixedOffsetZones.forSeconds(24 * 3600));
+        assertNull(FixedOffsetZones.forId("GMT+24:00"));
+        assertNull(FixedOffsetZones.forId("America/New_York"));
+    }
+
 }
@@ -3,8 +3,15 @@ package org.pojava.datetime;
 import junit.framework.TestCase;
 import org.pojava.datetime.examples.EuroDateTimeConfig;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -46,6 +53,146 @@ public class DateTimeFormatTester extends TestCase {
         assertEquals("2045-01-23 06:07:08.910111200", DateTimeFormat.format(fmt, dt));
     }
 
+    public void testCompiledFormat() {
+        DateTime dt = new DateTime("1/23/45 6:7:8.9101112");
+        String[] templates = {"yy/M/d", "yyyyy/MMMMM/ddddd", "MM/dd/yyyy h:m:s.SSS", "h 'o''clock' a",
+                "'o''xx' ''''", "yyyy-MM-dd'T'HH:mm:ss.SSSZZ", "EEEE, MMMM d, yyyy G", "w W D F k K"};
+        for (String template : templates) {
+            DateTimeFormat compiled = DateTimeFormat.compile(template);
+            assertEquals(template, compiled.getTemplate());
+            assertEquals(DateTimeFormat.format(template, dt), compiled.format(dt));
+        }
+    }
+
+    public void testCompiledFormatReuse() {
+        DateTimeFormat compiled = DateTimeFormat.compile("yyyy-MM-dd HH:mm:ss");
+        DateTime dt = new DateTime("2014-03-05 01:02:03");
+        for (int i = 0; i < 48; i++) {
+            DateTime dth = dt.add(CalendarUnit.HOUR, i);
+            assertEquals(dth.toString(), compiled.format(dth));
+        }
+        assertEquals("", DateTimeFormat.compile("").format(dt));
+    }
+
+    public void testFormatTo() throws Exception {
+        DateTimeFormat compiled = DateTimeFormat.compile("yyyy-MM-dd'T'HH:mm:ss.SSSZZ MMMM");
+        DateTime dt = new DateTime("2/3/2014 4:05:06.789");
+        String expected = compiled.format(dt);
+
+        StringBuilder sb = new StringBuilder("[");
+        compiled.formatTo(dt, sb);
+        assertEquals("[" + expected, sb.toString());
+
+        char[] chars = new char[expected.length() + 2];
+        assertEquals(expected.length(), compiled.formatTo(dt, chars, 2));
+        assertEquals(expected, new String(chars, 2, expected.length()));
+        try {
+            compiled.formatTo(dt, chars, 3);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        int size = compiled.formatTo(dt, bytes);
+        assertEquals(size, bytes.position());
+        assertEquals(expected, new String(bytes.array(), 0, size, "UTF-8"));
+    }
+
+    public void testFormatToUtf8() throws Exception {
+        DateTimeConfigBuilder builder = configBuilder();
+        builder.setLocale(Locale.FRENCH);
+        DateTime dt = new DateTime("2/3/2014", DateTimeConfig.fromBuilder(builder));
+        DateTimeFormat compiled = DateTimeFormat.compile("d MMMM yyyy");
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        int size = compiled.formatTo(dt, bytes);
+        assertEquals("3 février 2014", new String(bytes.array(), 0, size, "UTF-8"));
+        try {
+            compiled.formatTo(dt, ByteBuffer.allocate(size - 1));
+            fail("Expected BufferOverflowException");
+        } catch (BufferOverflowException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * Formatting numeric fields into a caller's buffer should not allocate.
+     */
+    public void testFormatToAllocation() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        DateTimeFormat compiled = DateTimeFormat.compile("yyyy-MM-dd HH:mm:ss.SSS Z");
+        DateTime dt = new DateTime("2/3/2014 4:05:06.789");
+        char[] chars = new char[64];
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        int iterations = 20000;
+        for (int i = 0; i < iterations; i++) {
+            compiled.formatTo(dt, chars, 0);
+            bytes.clear();
+            compiled.formatTo(dt, bytes);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            compiled.formatTo(dt, chars, 0);
+            bytes.clear();
+            compiled.formatTo(dt, bytes);
+        }
+        long allocated = counter.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("Allocated " + allocated + " bytes", allocated < iterations);
+    }
+
+    public void testPreloadSymbols() {
+        DateTimeFormat.preloadSymbols(Locale.FRENCH, Locale.GERMAN);
+        DateTime dt = new DateTime("1/23/2045 6:7:8.9101112");
+        DateTimeFormat compiled = DateTimeFormat.compile("EEEE d MMMM yyyy a");
+        TimeZone tz = dt.config().getOutputTimeZone();
+        assertEquals("lundi 23 janvier 2045 AM", compiled.format(dt, tz, Locale.FRENCH));
+        assertEquals("Montag 23 Januar 2045 AM", compiled.format(dt, tz, Locale.GERMAN));
+    }
+
+    /**
+     * Many threads formatting month and weekday names in different languages at once.
+     */
+    public void testConcurrentLocales() throws Exception {
+        final Locale[] locales = {Locale.ENGLISH, Locale.FRENCH, Locale.GERMAN, Locale.ITALIAN,
+                new Locale("es"), new Locale("pt"), new Locale("nl"), new Locale("sv")};
+        final DateTimeFormat compiled = DateTimeFormat.compile("EEE, d MMM yyyy HH:mm:ss");
+        final DateTime dt = new DateTime("1/23/2045 6:7:8.9101112");
+        final TimeZone tz = dt.config().getOutputTimeZone();
+        final String[] expected = new String[locales.length];
+        for (int i = 0; i < locales.length; i++) {
+            SimpleDateFormat sdf = new SimpleDateFormat("EEE, d MMM yyyy HH:mm:ss", locales[i]);
+            sdf.setTimeZone(tz);
+            expected[i] = sdf.format(dt.toDate());
+        }
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int first = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                        int index = (first + i) % locales.length;
+                        String actual = compiled.format(dt, tz, locales[index]);
+                        if (!expected[index].equals(actual)) {
+                            failures.add(locales[index] + ": " + actual);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
     public void testHTimeFormat() {
         IDateTimeConfig config = new EuroDateTimeConfig();
         DateTime dt = new DateTime("21.09.2012 - 21h48", config);
@@ -9,6 +9,7 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Random;
 import java.util.TimeZone;
 
 public class DateTimeTester extends TestCase {
@@ -491,6 +492,16 @@ public class DateTimeTester extends TestCase {
         }
     }
 
+    public void testNothingAfterHourMark() {
+        try {
+            DateTime dt = new DateTime("2024-01-15 12H");
+            fail("Expected IllegalArgumentException, not " + dt);
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.toString().contains("No minute parsed after [12H]."));
+        }
+        assertEquals(new DateTime("2024-01-15 12:30:45").toMillis(), new DateTime("2024-01-15 12H30M45").toMillis());
+    }
+
     public void testMissingYear() {
         try {
             DateTime dt = new DateTime("20-Sep");
@@ -940,4 +951,282 @@ public class DateTimeTester extends TestCase {
         assertEquals("2016-10-11 00:00:00", dt.toString());
     }
 
+    /**
+     * The ISO-8601 fast path must agree with the heuristic parser on everything it accepts.
+     */
+    public void testIsoFastPathMatchesHeuristic() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[] samples = {"2024-05-01T12:34:56.789Z", "2024-05-01t12:34:56z", "2024-05-01",
+                "2024-05-01 12:34", "2024-05-01T12:34:56,5", "2024-05-01T12:34:56.123456789-08:00",
+                "2024-05-01T12:34:56+0530", "2000-02-29T00:00:00Z", "1969-12-31T23:59:59.5Z",
+                "1500-03-01T00:00:00Z", "2014-03-09T02:30:00", "2014-11-02T01:30:00"};
+        for (String sample : samples) {
+            DateTime fast = IsoDateTimeParser.parse(sample, config);
+            assertNotNull(sample, fast);
+            DateTime slow = DateTime.parseHeuristic(sample, config);
+            assertEquals(sample, slow.toMillis(), fast.toMillis());
+            assertEquals(sample, slow.getNanos(), fast.getNanos());
+        }
+        Random random = new Random(20240501);
+        for (int i = 0; i < 2000; i++) {
+            long millis = (long) (random.nextDouble() * 20000000000000L) - 10000000000000L;
+            String zone = i % 3 == 0 ? "" : i % 3 == 1 ? "Z" : "-04:00";
+            String sample = DateTimeFormat.format("yyyy-MM-dd'T'HH:mm:ss.SSS", new DateTime(millis),
+                    TimeZone.getTimeZone("UTC"), Locale.ENGLISH) + zone;
+            assertEquals(sample, DateTime.parseHeuristic(sample, config).toMillis(),
+                    IsoDateTimeParser.parse(sample, config).toMillis());
+        }
+    }
+
+    /**
+     * Anything outside the fixed layouts is left to the heuristic parser.
+     */
+    public void testIsoFastPathFallsBack() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[] samples = {"2024/05/01", "2024-5-1", "20240501", "2024-05-01T12", "2024-05-01T12:34:56+10",
+                "2024-05-01T12:34:56 PST", "2024-05-01T24:00:00Z", "2024-02-30", "2024-05-01T12:34:56.1234567891Z",
+                " 2024-05-01", "2024-05-01T12:34:60Z", "0000-01-01"};
+        for (String sample : samples) {
+            assertNull(sample, IsoDateTimeParser.parse(sample, config));
+        }
+        assertEquals("2024-05-01 15:34:56", DateTime.parse("2024-05-01T12:34:56 PST").toString());
+    }
+
+    /**
+     * Offsets that are not whole hours or half hours are honored.
+     */
+    public void testIsoQuarterHourOffset() {
+        DateTime dt = DateTime.parse("2024-05-01T12:34:56.789+05:45");
+        assertEquals(DateTime.parse("2024-05-01T06:49:56.789Z").toMillis(), dt.toMillis());
+    }
+
+    /**
+     * The primitive parsers agree with parse, for ISO-8601 and heuristic layouts alike.
+     */
+    public void testParseToMillis() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[] samples = {"2024-05-01T12:34:56.789Z", "2024-05-01", "1969-12-31T23:59:59.5Z",
+                "May 1, 2024 12:34:56.123456 PM", "2024/05/01 12:34:56 +0530", "1 janvier 2024",
+                "12/31/1969 23:59:59.999999999", "1492-10-12"};
+        for (String sample : samples) {
+            DateTime dt = DateTime.parse(sample, config);
+            assertEquals(sample, dt.toMillis(), DateTime.parseToMillis(sample, config));
+            assertEquals(sample, dt.toMillis(), DateTime.parseToMillis(new StringBuilder(sample), config));
+            if (dt.toMillis() >= 0) {
+                assertEquals(sample, dt.getSeconds() * 1000000000L + dt.getNanos(),
+                        DateTime.parseToEpochNanos(sample, config));
+            }
+        }
+        assertEquals(-500000000L, DateTime.parseToEpochNanos("1969-12-31T23:59:59.5Z", config));
+        assertEquals(-1L, DateTime.parseToEpochNanos("1969-12-31T23:59:59.999999999Z", config));
+        assertEquals(config.systemTime(), DateTime.parseToMillis(null, config));
+    }
+
+    /**
+     * Dates beyond about 292 years from 1970 cannot be counted in nanoseconds.
+     */
+    public void testParseToEpochNanosRange() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        assertEquals(Long.MAX_VALUE, DateTime.parseToEpochNanos("2262-04-11T23:47:16.854775807Z", config));
+        assertEquals(Long.MIN_VALUE, DateTime.parseToEpochNanos("1677-09-21T00:12:43.145224192Z", config));
+        String[] samples = {"2262-04-11T23:47:16.854775808Z", "1677-09-21T00:12:43.145224191Z", "1492-10-12"};
+        for (String sample : samples) {
+            try {
+                DateTime.parseToEpochNanos(sample, config);
+                fail("Expected out of range: " + sample);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage().indexOf(sample) > 0);
+            }
+        }
+        try {
+            DateTime.parseToMillis("No date here", config);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * Parsing an ISO-8601 date to a primitive leaves no garbage behind.
+     */
+    public void testParseToMillisAllocation() {
+        java.lang.management.ThreadMXBean mxBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(mxBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) mxBean;
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[] samples = {"2024-05-01T12:34:56.789Z", "2024-05-01T12:34:56.123456-07:00", "2024-05-01 12:34:56"};
+        long checksum = 0;
+        for (int i = 0; i < 50000; i++) {
+            checksum += DateTime.parseToMillis(samples[i % samples.length], config);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 30000; i++) {
+            checksum += DateTime.parseToEpochNanos(samples[i % samples.length], config);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(checksum != 0);
+        assertTrue("Allocated " + allocated + " bytes", allocated < 30000);
+    }
+
+    /**
+     * A date may be parsed from the middle of a larger run of characters.
+     */
+    public void testParseRange() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[] samples = {"2024-05-01T12:34:56.789Z", "May 1, 2024 12:34:56 PM", "1 janvier 2024",
+                "2024/05/01 12:34:56 +0530"};
+        for (String sample : samples) {
+            StringBuilder record = new StringBuilder("42,").append(sample).append(" ,x");
+            int start = 3;
+            int end = record.length() - 2;
+            DateTime expected = DateTime.parse(sample, config);
+            DateTime dt = DateTime.parse(record, start, end, config);
+            assertEquals(sample, expected.toMillis(), dt.toMillis());
+            assertEquals(sample, expected.getNanos(), dt.getNanos());
+            assertEquals(sample, expected.toMillis(), DateTime.parseToMillis(record, start, end, config));
+        }
+        try {
+            DateTime.parse("2024-05-01", 5, 11, config);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * A date may be parsed straight from ASCII bytes.
+     */
+    public void testParseAscii() throws Exception {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        byte[] record = "id=7|2024-05-01T12:34:56.123456789-07:00|Wed, 01 May 2024 12:34:56 GMT|".getBytes("US-ASCII");
+        DateTime iso = DateTime.parse(record, 5, 35, config);
+        assertEquals(DateTime.parse("2024-05-01T12:34:56.123456789-07:00", config).toMillis(), iso.toMillis());
+        assertEquals(123456789, iso.getNanos());
+        assertEquals(DateTime.parse("Wed, 01 May 2024 12:34:56 GMT", config).toMillis(),
+                DateTime.parseToMillis(record, 41, 29, config));
+        try {
+            DateTime.parseToMillis(record, 60, 29, config);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * Fields run together are separated as though spaced apart.
+     */
+    public void testRunTogetherFields() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        String[][] pairs = {{"15JAN2024", "15 JAN 2024"}, {"JAN15 2024 10:30PM", "JAN 15 2024 10:30 PM"},
+                {"2024-01-15T10:30:00", "2024-01-15 10:30:00"}, {"15-jan-2024 10:30pm pst", "15 JAN 2024 10:30 PM PST"}};
+        for (String[] pair : pairs) {
+            assertEquals(pair[0], DateTime.parseToMillis(pair[1], config), DateTime.parseToMillis(pair[0], config));
+        }
+    }
+
+    /**
+     * Numeric offsets are read straight into shared fixed offset zones.
+     */
+    public void testNumericOffsetSuffix() {
+        IDateTimeConfig config = DateTimeConfig.getGlobalDefault();
+        long utc = DateTime.parseToMillis("Mon, 15 Jan 2024 10:00:00 GMT", config);
+        assertEquals(utc, DateTime.parseToMillis("Mon, 15 Jan 2024 10:00:00 +0000", config));
+        assertEquals(utc - 19800000, DateTime.parseToMillis("Mon, 15 Jan 2024 10:00:00 +0530", config));
+        assertEquals(utc - 19800000, DateTime.parseToMillis("Mon, 15 Jan 2024 10:00:00 +05:30", config));
+        assertEquals(utc + 28800000, DateTime.parseToMillis("15 Jan 2024 10:00:00 -0800", config));
+    }
+
+    /**
+     * Shifts by calendar units agree with GregorianCalendar.add, across daylight saving
+     * transitions, month ends, leap days and the Julian cutover.
+     */
+    public void testShiftCalendarUnitMatchesCalendar() {
+        String[] zones = {"UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "America/St_Johns",
+                "Pacific/Apia", "Africa/Casablanca", "America/Sao_Paulo"};
+        CalendarUnit[] units = {CalendarUnit.DAY, CalendarUnit.WEEK, CalendarUnit.MONTH, CalendarUnit.QUARTER,
+                CalendarUnit.YEAR, CalendarUnit.CENTURY};
+        int[] fields = {Calendar.DATE, Calendar.DATE, Calendar.MONTH, Calendar.MONTH, Calendar.YEAR, Calendar.YEAR};
+        int[] multiples = {1, 7, 1, 3, 1, 100};
+        Random random = new Random(24);
+        for (String zone : zones) {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            IDateTimeConfig config = LocalConfig.instanceOverridingTimeZones(DateTimeConfig.getGlobalDefault(), tz, tz);
+            for (int i = 0; i < 4000; i++) {
+                long millis;
+                if (i % 3 == 0) {
+                    // Whole quarter hours, which land on transitions
+                    millis = 1700000000000L + (long) ((random.nextDouble() - 0.5) * 3e12) / 900000 * 900000;
+                } else if (i % 3 == 1) {
+                    // Around the Julian cutover
+                    millis = -12219292800000L + (long) ((random.nextDouble() - 0.5) * 800 * Duration.DAY);
+                } else {
+                    millis = (long) ((random.nextDouble() - 0.5) * 1.2e14) + random.nextInt(1000);
+                }
+                int unit = random.nextInt(units.length);
+                int qty = random.nextInt(27) - 13;
+                Calendar cal = Calendar.getInstance(tz, Locale.US);
+                cal.setTimeInMillis(millis);
+                cal.add(fields[unit], qty * multiples[unit]);
+                DateTime dt = new DateTime(millis, config);
+                String label = zone + " " + millis + " " + units[unit] + " " + qty;
+                assertEquals(label, new DateTime(cal.getTimeInMillis() / 1000, dt.getNanos(), config).toMillis(),
+                        dt.shift(units[unit], qty).toMillis());
+            }
+        }
+    }
+
+    /**
+     * Shifting by a Shift agrees with adding each of its fields to a GregorianCalendar in turn,
+     * as shift once did, including where steps land near daylight saving transitions or the
+     * Julian cutover.
+     */
+    public void testShiftMatchesCalendar() {
+        String[] zones = {"UTC", "America/New_York", "Europe/London", "Australia/Lord_Howe", "America/St_Johns",
+                "Pacific/Apia", "Africa/Casablanca", "America/Havana"};
+        Random random = new Random(25);
+        for (String zone : zones) {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            IDateTimeConfig config = LocalConfig.instanceOverridingTimeZones(DateTimeConfig.getGlobalDefault(), tz, tz);
+            for (int i = 0; i < 4000; i++) {
+                long millis;
+                if (i % 3 == 0) {
+                    // Whole quarter hours, which land on transitions
+                    millis = 1300000000000L + (long) ((random.nextDouble() - 0.5) * 2e12) / 900000 * 900000;
+                } else if (i % 3 == 1) {
+                    // Around the Julian cutover
+                    millis = -12219292800000L + (long) ((random.nextDouble() - 0.5) * 1200 * Duration.DAY);
+                } else {
+                    millis = (long) ((random.nextDouble() - 0.5) * 1.2e14) + random.nextInt(1000);
+                }
+                Shift shift = new Shift();
+                shift.setYear(random.nextInt(3) == 0 ? random.nextInt(9) - 4 : 0);
+                shift.setMonth(random.nextBoolean() ? random.nextInt(31) - 15 : 0);
+                shift.setWeek(random.nextInt(3) == 0 ? random.nextInt(11) - 5 : 0);
+                shift.setDay(random.nextBoolean() ? random.nextInt(61) - 30 : 0);
+                shift.setHour(random.nextInt(3) == 0 ? random.nextInt(49) - 24 : 0);
+                shift.setMinute(random.nextInt(3) == 0 ? random.nextInt(121) - 60 : 0);
+                shift.setSecond(random.nextInt(3) == 0 ? random.nextInt(121) - 60 : 0);
+                shift.setNanosec(random.nextInt(4) == 0 ? random.nextInt(2000000000) - 1000000000 : 0);
+                Calendar cal = Calendar.getInstance(tz, Locale.US);
+                cal.setTimeInMillis(millis);
+                cal.add(Calendar.YEAR, shift.getYear());
+                cal.add(Calendar.MONTH, shift.getMonth());
+                cal.add(Calendar.DATE, shift.getWeek() * 7);
+                cal.add(Calendar.DATE, shift.getDay());
+                cal.add(Calendar.HOUR, shift.getHour());
+                cal.add(Calendar.MINUTE, shift.getMinute());
+                cal.add(Calendar.SECOND, shift.getSecond());
+                DateTime dt = new DateTime(millis, config);
+                DateTime expected = new DateTime(cal.getTimeInMillis() / 1000, dt.getNanos() + shift.getNanosec(),
+                        config);
+                DateTime shifted = dt.shift(shift);
+                String label = zone + " " + millis + " " + shift;
+                assertEquals(label, expected.toMillis(), shifted.toMillis());
+                assertEquals(label, expected.getNanos(), shifted.getNanos());
+            }
+        }
+    }
 }
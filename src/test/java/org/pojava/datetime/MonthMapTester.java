@@ -2,6 +2,14 @@ package org.pojava.datetime;
 
 import junit.framework.TestCase;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.text.DateFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public class MonthMapTester extends TestCase {
 
     private MonthMap monthMap;
@@ -85,4 +93,104 @@ public class MonthMapTester extends TestCase {
         assertEquals(10, monthMap.monthIndex("nov.").intValue());
         assertEquals(11, monthMap.monthIndex("dic.").intValue());
     }
+
+    public void testMonthIndexInRange() throws Exception {
+        String text = "Tue, 14 Octob 2014 09:30 PM PST";
+        assertEquals(9, monthMap.monthIndex(text, 8, 13).intValue());
+        assertEquals(9, monthMap.monthIndex(new StringBuilder(text), 8, 11).intValue());
+        assertNull(monthMap.monthIndex(text, 0, 3));
+        assertNull(monthMap.monthIndex(text, 26, 28));
+        assertNull(monthMap.monthIndex(text, 29, 31));
+        assertNull(monthMap.monthIndex(text, 8, 8));
+    }
+
+    public void testMonthIndexPrefixes() throws Exception {
+        // Exact, then four characters, then three.
+        assertEquals(8, monthMap.monthIndex("September").intValue());
+        assertEquals(8, monthMap.monthIndex("Septiembre").intValue());
+        assertEquals(8, monthMap.monthIndex("SEPTX").intValue());
+        assertEquals(11, monthMap.monthIndex("decXYZ").intValue());
+        assertNull(monthMap.monthIndex("Smarch"));
+    }
+
+    public void testAddMonth() throws Exception {
+        MonthMap custom = new MonthMap();
+        assertNull(custom.monthIndex("Brumaire"));
+        custom.addMonth("BRUM", 1);
+        assertEquals(1, custom.monthIndex("Brumaire").intValue());
+        custom.addMonth("brumaire", 2);
+        assertEquals(2, custom.monthIndex("Brumaire").intValue());
+        assertEquals(1, custom.monthIndex("brum").intValue());
+    }
+
+    public void testBundledTable() throws Exception {
+        Map<String, Integer> loaded = new HashMap<String, Integer>();
+        assertTrue(MonthTable.load(loaded));
+        assertEquals(loaded, monthMap.names());
+        assertEquals(0, loaded.get("JANV").intValue());
+        assertEquals(11, loaded.get("DEC").intValue());
+    }
+
+    /**
+     * The bundled table holds just what a scan finds, when run on the JDK that generated it.
+     */
+    public void testBundledTableMatchesScan() throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+                MonthTable.class.getResourceAsStream(MonthTable.RESOURCE), "UTF-8"));
+        String header;
+        try {
+            header = in.readLine();
+        } finally {
+            in.close();
+        }
+        if (!header.endsWith(" on Java " + System.getProperty("java.version"))) {
+            // Other JDKs have other locale data.
+            return;
+        }
+        Map<String, Integer> loaded = new HashMap<String, Integer>();
+        assertTrue(MonthTable.load(loaded));
+        assertEquals(MonthMap.scanAllLocales().names(), loaded);
+    }
+
+    /**
+     * Months written outside the Basic Multilingual Plane, as in Chakma and Adlam, are
+     * abbreviated by whole characters rather than halves of surrogate pairs.
+     */
+    public void testSurrogatePairs() throws Exception {
+        for (String language : new String[]{"ccp", "ff_Adlm"}) {
+            Locale locale = Locale.forLanguageTag(language.replace('_', '-'));
+            String[] months = DateFormatSymbols.getInstance(locale).getMonths();
+            for (int i = 0; i < 12; i++) {
+                if (months[i].codePointAt(0) > 0xFFFF) {
+                    assertEquals(months[i], i, monthMap.monthIndex(months[i]).intValue());
+                }
+            }
+        }
+    }
+
+    public void testTableRoundTrip() throws Exception {
+        MonthMap custom = new MonthMap();
+        custom.addMonth("Brumaire", 1);
+        custom.addMonth("Nivôse", 3);
+        StringWriter out = new StringWriter();
+        MonthTable.write(custom, out);
+        assertTrue(out.toString().startsWith("#"));
+        assertTrue(out.toString().contains("NIVÔSE\t3\n"));
+    }
+
+    public void testSharedNames() throws Exception {
+        MonthMap other = MonthMap.fromAllLocales();
+        assertTrue(other.sharesNamesWith(monthMap));
+        assertTrue(DateTimeConfigBuilder.newInstance().getMonthMap().sharesNamesWith(monthMap));
+    }
+
+    public void testAddMonthCopiesSharedNames() throws Exception {
+        MonthMap custom = MonthMap.fromAllLocales();
+        custom.addMonth("Thermidor", 6);
+        assertFalse(custom.sharesNamesWith(monthMap));
+        assertEquals(6, custom.monthIndex("Thermidor").intValue());
+        assertEquals(0, custom.monthIndex("January").intValue());
+        assertNull(monthMap.monthIndex("Thermidor"));
+        assertNull(MonthMap.fromAllLocales().monthIndex("Thermidor"));
+    }
 }
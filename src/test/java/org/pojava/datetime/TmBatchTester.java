@@ -0,0 +1,90 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+public class TmBatchTester extends TestCase {
+
+    @Override
+    public void setUp() {
+        DateTimeConfig.setGlobalDefault(null);
+    }
+
+    /**
+     * Each part agrees with a Tm of the same timestamp, in order or not, across transitions,
+     * the Julian cutover and the limits of the table of offsets.
+     */
+    public void testMatchesTm() {
+        TimeZone[] zones = {TimeZone.getTimeZone("UTC"), TimeZone.getTimeZone("America/New_York"),
+                TimeZone.getTimeZone("Australia/Lord_Howe"), TimeZone.getTimeZone("Africa/Casablanca"),
+                TimeZone.getTimeZone("Pacific/Kiritimati"), TimeZone.getTimeZone("Etc/GMT+12"),
+                new SimpleTimeZone(-3600000, "Custom")};
+        Random random = new Random(23);
+        long[] millis = new long[20000];
+        for (int i = 0; i < millis.length; i++) {
+            if (i < 5000) {
+                // Every 17 minutes through 2024
+                millis[i] = 1704067200000L + i * 17 * 60000L * 6;
+            } else if (i < 10000) {
+                millis[i] = random.nextLong() >> (i % 24);
+            } else if (i < 15000) {
+                millis[i] = -12219292800000L + (long) ((random.nextDouble() - 0.5) * 20 * Duration.DAY);
+            } else {
+                millis[i] = -2208988800000L + (long) ((random.nextDouble() - 0.5) * 400 * Duration.DAY);
+            }
+        }
+        millis[10000] = Long.MAX_VALUE;
+        millis[10001] = Long.MIN_VALUE;
+        int[] years = new int[millis.length];
+        int[] months = new int[millis.length];
+        int[] days = new int[millis.length];
+        int[] hours = new int[millis.length];
+        int[] weekdays = new int[millis.length];
+        Tm tm = new Tm();
+        for (TimeZone tz : zones) {
+            TmBatch.decompose(millis, tz, years, months, days, hours, weekdays);
+            for (int i = 0; i < millis.length; i++) {
+                tm.set(millis[i], tz);
+                String label = tz.getID() + " " + millis[i];
+                assertEquals(label, tm.getYear(), years[i]);
+                assertEquals(label, tm.getMonth(), months[i]);
+                assertEquals(label, tm.getDay(), days[i]);
+                assertEquals(label, tm.getHour(), hours[i]);
+                assertEquals(label, tm.getWeekday(), weekdays[i]);
+            }
+        }
+    }
+
+    /**
+     * Columns left null are skipped, and only the range asked for is written.
+     */
+    public void testPartialColumns() {
+        long[] millis = {0L, 1700000000000L, 951782400000L, -1L};
+        int[] months = new int[4];
+        Arrays.fill(months, -1);
+        TmBatch.decompose(millis, 1, 3, TimeZone.getTimeZone("UTC"), null, months, null, null, null);
+        assertEquals(-1, months[0]);
+        assertEquals(11, months[1]);
+        assertEquals(2, months[2]);
+        assertEquals(-1, months[3]);
+    }
+
+    public void testShortColumn() {
+        try {
+            TmBatch.decompose(new long[3], TimeZone.getTimeZone("UTC"), new int[2], null, null, null, null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+        try {
+            TmBatch.decompose(new long[3], 2, 4, TimeZone.getTimeZone("UTC"), null, null, null, null, null);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+}
@@ -3,8 +3,14 @@ package org.pojava.datetime;
 import junit.framework.TestCase;
 
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.SimpleTimeZone;
 import java.util.TimeZone;
 
 public class TmTester extends TestCase {
@@ -188,4 +194,174 @@ public class TmTester extends TestCase {
         }
     }
 
+    /**
+     * The arithmetic calcTime must agree with the Calendar computation it replaced, across
+     * centuries, the Julian cutover, daylight saving gaps and overlaps, and lenient fields.
+     */
+    public void testCalcTimeMatchesCalendar() {
+        String[] zones = {"UTC", "America/New_York", "Europe/London", "Australia/Sydney", "Asia/Kolkata",
+                "America/St_Johns", "Europe/Moscow", "Pacific/Apia", "PST", "GMT+05:30"};
+        Random random = new Random(1582);
+        for (String zone : zones) {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            for (int i = 0; i < 3000; i++) {
+                int year = random.nextInt(2600) - 100;
+                int month = random.nextInt(12) + 1;
+                int day = random.nextInt(31) + 1;
+                int hour = random.nextInt(24);
+                int min = random.nextInt(60);
+                assertCalcTime(tz, year, month, day, hour, min, random.nextInt(60), random.nextInt(1000));
+            }
+            // Every half hour through a few springs and autumns, before and after 2037
+            for (int year : new int[]{1918, 1950, 2014, 2037, 2038, 2044}) {
+                for (int month : new int[]{3, 4, 9, 10, 11}) {
+                    for (int day = 1; day <= 31; day++) {
+                        for (int halfHour = 0; halfHour < 48; halfHour++) {
+                            assertCalcTime(tz, year, month, day, halfHour / 2, halfHour % 2 * 30, 0, 0);
+                        }
+                    }
+                }
+            }
+            // Around the Julian to Gregorian cutover
+            for (int day = -20; day < 40; day++) {
+                assertCalcTime(tz, 1582, 10, day, 12, 0, 0, 0);
+            }
+            // Fields beyond their normal ranges
+            assertCalcTime(tz, 2014, 15, 1, 0, 0, 0, 0);
+            assertCalcTime(tz, 2014, 0, 1, 0, 0, 0, 0);
+            assertCalcTime(tz, 2014, -13, 40, 25, 64, -5, -1);
+            assertCalcTime(tz, 1582, 1, 300, 0, 0, 0, 0);
+            assertCalcTime(tz, 0, 2, 29, 0, 0, 0, 0);
+            assertCalcTime(tz, -4713, 1, 1, 0, 0, 0, 0);
+        }
+        SimpleTimeZone custom = new SimpleTimeZone(-3600000, "Custom", Calendar.MARCH, 1, 0, 7200000,
+                Calendar.OCTOBER, 1, 0, 7200000);
+        for (int day = 1; day <= 2; day++) {
+            for (int halfHour = 0; halfHour < 48; halfHour++) {
+                assertCalcTime(custom, 2014, 3, day, halfHour / 2, halfHour % 2 * 30, 0, 0);
+                assertCalcTime(custom, 2014, 10, day, halfHour / 2, halfHour % 2 * 30, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * A Tm that is set over and over agrees with a new Tm each time, whatever it held before.
+     */
+    public void testSetReuses() {
+        TimeZone[] zones = {TimeZone.getTimeZone("UTC"), TimeZone.getTimeZone("America/New_York"),
+                TimeZone.getTimeZone("Asia/Kolkata"), new SimpleTimeZone(-3600000, "Custom")};
+        Random random = new Random(22);
+        Tm tm = new Tm();
+        for (int i = 0; i < 10000; i++) {
+            long millis = random.nextLong() >> (i % 24);
+            TimeZone tz = zones[i % zones.length];
+            Tm expected = new Tm(new DateTime(millis, tz), tz);
+            assertSame(tm, tm.set(millis, tz));
+            String label = tz.getID() + " " + millis;
+            assertEquals(label, expected.getYear(), tm.getYear());
+            assertEquals(label, expected.getMonth(), tm.getMonth());
+            assertEquals(label, expected.getDay(), tm.getDay());
+            assertEquals(label, expected.getHour(), tm.getHour());
+            assertEquals(label, expected.getMinute(), tm.getMinute());
+            assertEquals(label, expected.getSecond(), tm.getSecond());
+            assertEquals(label, expected.getNanosecond(), tm.getNanosecond());
+            assertEquals(label, expected.getWeekday(), tm.getWeekday());
+        }
+        tm.set(1700000000123L, 123456789, zones[0]);
+        assertEquals(123456789, tm.getNanosecond());
+        assertEquals(2023, tm.getYear());
+        assertEquals(22, tm.getHour());
+    }
+
+    /**
+     * A reused Tm walking one zone in small steps crosses transitions as a new Tm would.
+     */
+    public void testSetWalksTransitions() {
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        Tm tm = new Tm();
+        for (long millis = 1699000000000L; millis < 1716000000000L; millis += 1800000L) {
+            Tm expected = new Tm(millis, tz);
+            tm.set(millis, tz);
+            assertEquals(Long.toString(millis), expected.getDay(), tm.getDay());
+            assertEquals(Long.toString(millis), expected.getHour(), tm.getHour());
+        }
+    }
+
+    /**
+     * Dates before 1600 are decomposed arithmetically, on the Julian calendar before the
+     * Gregorian cutover as GregorianCalendar reckons them.
+     */
+    public void testOldDatesMatchCalendar() {
+        String[] zones = {"UTC", "America/New_York", "Asia/Kolkata", "Pacific/Kiritimati"};
+        Random random = new Random(1600);
+        for (String zone : zones) {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            Calendar cal = new GregorianCalendar(tz);
+            for (int i = 0; i < 20000; i++) {
+                // From about 5000 BC to 1601, and around the cutover
+                long millis = i % 2 == 0 ? -12219292800000L + (long) ((random.nextDouble() - 0.5) * 40 * Duration.DAY)
+                        : -220000000000000L + (long) (random.nextDouble() * 208400000000000L);
+                cal.setTimeInMillis(millis);
+                Tm tm = new Tm(millis, tz);
+                int year = cal.get(Calendar.YEAR);
+                if (cal.get(Calendar.ERA) == GregorianCalendar.BC) {
+                    year = -year;
+                }
+                String label = zone + " " + millis;
+                assertEquals(label, year, tm.getYear());
+                assertEquals(label, 1 + cal.get(Calendar.MONTH), tm.getMonth());
+                assertEquals(label, cal.get(Calendar.DATE), tm.getDay());
+                assertEquals(label, cal.get(Calendar.HOUR_OF_DAY), tm.getHour());
+                assertEquals(label, cal.get(Calendar.MINUTE), tm.getMinute());
+                assertEquals(label, cal.get(Calendar.SECOND), tm.getSecond());
+                assertEquals(label, cal.get(Calendar.MILLISECOND), tm.getMillisecond());
+                assertEquals(label, cal.get(Calendar.DAY_OF_WEEK), tm.getWeekday());
+            }
+        }
+    }
+
+    /**
+     * On the proleptic Gregorian calendar, dates agree with java.time over the whole range.
+     */
+    public void testProlepticMatchesJavaTime() {
+        TimeZone tz = TimeZone.getTimeZone("UTC");
+        Random random = new Random(8601);
+        long[] samples = new long[10004];
+        for (int i = 0; i < 10000; i++) {
+            samples[i] = random.nextLong() >> (i % 20);
+        }
+        samples[10000] = Long.MIN_VALUE;
+        samples[10001] = Long.MAX_VALUE;
+        samples[10002] = -12219292800001L;
+        samples[10003] = -62135596800000L;
+        for (long millis : samples) {
+            LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+            Tm tm = new Tm(millis, tz, true);
+            String label = Long.toString(millis);
+            // Tm has no year 0, so 1 BC is -1.
+            assertEquals(label, ldt.getYear() > 0 ? ldt.getYear() : ldt.getYear() - 1, tm.getYear());
+            assertEquals(label, ldt.getMonthValue(), tm.getMonth());
+            assertEquals(label, ldt.getDayOfMonth(), tm.getDay());
+            assertEquals(label, ldt.getHour(), tm.getHour());
+            assertEquals(label, ldt.getMinute(), tm.getMinute());
+            assertEquals(label, ldt.getSecond(), tm.getSecond());
+            assertEquals(label, ldt.getNano(), tm.getNanosecond());
+            assertEquals(label, ldt.getDayOfWeek().getValue() % 7 + 1, tm.getWeekday());
+        }
+    }
+
+    private void assertCalcTime(TimeZone tz, int year, int month, int day, int hour, int min, int sec, int milli) {
+        Calendar cal = new GregorianCalendar(tz);
+        cal.clear();
+        cal.set(Calendar.YEAR, year);
+        cal.set(Calendar.MONTH, month - 1);
+        cal.set(Calendar.DAY_OF_MONTH, day);
+        cal.set(Calendar.HOUR_OF_DAY, hour);
+        cal.set(Calendar.MINUTE, min);
+        cal.set(Calendar.SECOND, sec);
+        cal.set(Calendar.MILLISECOND, milli);
+        String label = tz.getID() + " " + year + "-" + month + "-" + day + " " + hour + ":" + min + ":" + sec + "." + milli;
+        assertEquals(label, cal.getTimeInMillis(), Tm.calcTime(year, month, day, hour, min, sec, milli, tz));
+    }
+
 }
@@ -0,0 +1,79 @@
+package org.pojava.datetime;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+public class ZoneOffsetsTester extends TestCase {
+
+    private static final long START = -2524521600000L; // 1890-01-01
+    private static final long END = 4133980800000L; // 2101-01-01
+
+    /**
+     * Every zone agrees with TimeZone.getOffset, on both sides of each transition.
+     */
+    public void testAllZonesAgree() {
+        Random random = new Random(1);
+        for (String id : TimeZone.getAvailableIDs()) {
+            TimeZone tz = TimeZone.getTimeZone(id);
+            ZoneOffsets offsets = ZoneOffsets.of(tz);
+            int previous = tz.getOffset(START);
+            // Hourly steps find each transition, then the milliseconds either side are checked.
+            for (long millis = START; millis < END; millis += 241 * Duration.HOUR) {
+                int expected = tz.getOffset(millis);
+                assertEquals(id + " at " + millis, expected, offsets.getOffset(millis));
+                if (expected != previous) {
+                    long low = millis - 241 * Duration.HOUR;
+                    long high = millis;
+                    while (high - low > 1) {
+                        long mid = low + (high - low) / 2;
+                        if (tz.getOffset(mid) == expected) {
+                            high = mid;
+                        } else {
+                            low = mid;
+                        }
+                    }
+                    assertEquals(id + " at " + low, tz.getOffset(low), offsets.getOffset(low));
+                    assertEquals(id + " at " + high, tz.getOffset(high), offsets.getOffset(high));
+                }
+                previous = expected;
+            }
+            for (int i = 0; i < 20; i++) {
+                long millis = START + (long) (random.nextDouble() * (END - START));
+                assertEquals(id + " at " + millis, tz.getOffset(millis), offsets.getOffset(millis));
+            }
+        }
+    }
+
+    public void testTabled() {
+        assertTrue(ZoneOffsets.of(TimeZone.getTimeZone("America/New_York")).isTabled());
+        assertTrue(ZoneOffsets.of(TimeZone.getTimeZone("UTC")).isTabled());
+        // Only the JDK's own zones are tabled.
+        TimeZone simple = new SimpleTimeZone(3600000, "Custom");
+        assertFalse(ZoneOffsets.of(simple).isTabled());
+        assertEquals(3600000, ZoneOffsets.getOffset(simple, 0));
+    }
+
+    public void testOutsideTable() {
+        TimeZone tz = TimeZone.getTimeZone("Europe/Paris");
+        long[] samples = {Long.MIN_VALUE / 2, -30000000000000L, 8000000000000L, Long.MAX_VALUE / 2};
+        for (long millis : samples) {
+            assertEquals(tz.getOffset(millis), ZoneOffsets.getOffset(tz, millis));
+        }
+    }
+
+    /**
+     * Equal zones share one table, whichever instance asks.
+     */
+    public void testEqualZones() {
+        TimeZone first = TimeZone.getTimeZone("Asia/Kolkata");
+        TimeZone second = TimeZone.getTimeZone("Asia/Kolkata");
+        assertNotSame(first, second);
+        assertEquals(19800000, ZoneOffsets.getOffset(first, 1700000000000L));
+        assertEquals(19800000, ZoneOffsets.getOffset(second, 1700000000000L));
+        assertSame(ZoneOffsets.of(first), ZoneOffsets.of(second));
+        assertSame(ZoneOffsets.of(first), ZoneOffsets.of((TimeZone) second.clone()));
+    }
+}